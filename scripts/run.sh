@@ -39,9 +39,9 @@ do
 		mkdir -p $OUTPUT
 
 		echo "Running command ..."
-		echo "$JVM $CC_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg lb=${defaults[3]} maxS=${defaults[4]}"
+		echo "$JVM $CC_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} lb=${defaults[3]} maxS=${defaults[4]}"
 		echo "---- `date`"
-		$JVM $CC_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg lb=${defaults[3]} maxS=${defaults[4]}
+		$JVM $CC_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} lb=${defaults[3]} maxS=${defaults[4]}
 	fi
 
 	if [[ ${experiments[1]} -eq "1" ]]; then
@@ -60,18 +60,18 @@ do
 			do
 				if [[ $landmarkAssignment == "ranking" ]]; then
 					echo "Running command ..."
-					echo "$JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed store=${defaults[5]} isApproximate=false kind=edge"
+					echo "$JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed store=${defaults[5]} isApproximate=false kind=edge"
 					echo "---- `date`"
-					$JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge
+					$JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge
 				else
 					for run in {1..10}
 					do
 						OUT2="$OUTPUT$run/"
 						mkdir -p $OUT2
 						echo "Running command ..."
-                                        	echo "$JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge"
+                                        	echo "$JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge"
                                         	echo "---- `date`"
-                                 	       $JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge
+                                 	       $JVM $BASELINE_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge
 					done
 				fi
 			done
@@ -94,18 +94,18 @@ do
 			do
 				if [[ $landmarkAssignment == "ranking" ]]; then
 					echo "Running command ..."
-					echo "$JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge"
+					echo "$JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge"
 					echo "---- `date`"
-					$JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge
+					$JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge
 				else
                                         for run in {1..10}
                                         do
                                                 OUT2="$OUTPUT$run/"
 						mkdir -p $OUT2
                                                 echo "Running command ..."
-                                                echo "$JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge"
+                                                echo "$JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge"
                                                 echo "---- `date`"
-                                               $JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge
+                                               $JVM $ALPHAS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge
                                         done
                                 fi
 			done
@@ -126,18 +126,18 @@ do
 		do
 			if [[ $landmarkAssignment == "ranking" ]]; then
 				echo "Running command ..."
-				echo "$JVM $LS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge"
+				echo "$JVM $LS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge"
 				echo "---- `date`"
-				$JVM $LS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge
+				$JVM $LS_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=false kind=edge
 			else
                         	for run in {1..10}
                                 do
                                 	OUT2="$OUTPUT$run/"
 					mkdir -p $OUT2
                                         echo "Running command ..."
-                                        echo "$JVM $LS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge"
+                                        echo "$JVM $LS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge"
                                         echo "---- `date`"
-                                       $JVM $LS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge
+                                       $JVM $LS_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=false kind=edge
                                 done
                         fi
 		done
@@ -165,18 +165,18 @@ do
 			do
 				if [[ $landmarkAssignment == "ranking" ]]; then
 					echo "Running command ..."
-					echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
+					echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
 					echo "---- `date`"
-					$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
+					$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
 				else
                                         for run in {1..5}
                                         do
                                                 OUT2="$OUTPUT2$run/"
 						mkdir -p $OUT2
                                                 echo "Running command ..."
-                                                echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
+                                                echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
                                                 echo "---- `date`"
-                                               $JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
+                                               $JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
                                         done
                                 fi
 			done
@@ -205,18 +205,18 @@ do
 			do
 				if [[ $landmarkAssignment == "ranking" ]]; then
 					echo "Running command ..."
-					echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
+					echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
 					echo "---- `date`"
-					$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
+					$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
 				else
                                         for run in {1..5}
                                         do
                                                 OUT2="$OUTPUT2$run/"
 						mkdir -p $OUT2
                                                 echo "Running command ..."
-                                                echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
+                                                echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
                                                 echo "---- `date`"
-                                               $JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
+                                               $JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy numQueries=${defaults[2]} store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
                                         done
                                 fi
 			done
@@ -245,18 +245,18 @@ do
 			do
 				if [[ $landmarkAssignment == "ranking" ]]; then
 					echo "Running command ..."
-					echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
+					echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
 					echo "---- `date`"
-					$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
+					$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
 				else
                                         for run in {1..5}
                                         do
                                                 OUT2="$OUTPUT2$run/"
 						mkdir -p $OUT2
                                                 echo "Running command ..."
-                                                echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
+                                                echo "$JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
                                                 echo "---- `date`"
-                                               $JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
+                                               $JVM $HYPERQ_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
                                         done
                                 fi
 			done
@@ -285,18 +285,18 @@ do
 			do
 				if [[ $landmarkAssignment == "ranking" ]]; then
 					echo "Running command ..."
-					echo "$JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
+					echo "$JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind"
 					echo "---- `date`"
-					$JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
+					$JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind
 				else
                                         for run in {1..5}
                                         do
                                                 OUT2="$OUTPUT2$run/"
 						mkdir -p $OUT2
                                                 echo "Running command ..."
-                                                echo "$JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
+                                                echo "$JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind"
                                                 echo "---- `date`"
-                                               $JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
+                                               $JVM $HYPERC_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind
                                         done
                                 fi
 			done
@@ -325,18 +325,18 @@ do
 			do
 				if [[ $landmarkAssignment == "ranking" ]]; then
 					echo "Running command ..."
-					echo "$JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind k=$k"
+					echo "$JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind k=$k"
 					echo "---- `date`"
-					$JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind k=$k
+					$JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUTPUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$seed isApproximate=$isApproximate kind=$kind k=$k
 				else
                                         for run in {1..5}
                                         do
                                                 OUT2="$OUTPUT2$run/"
 						mkdir -p $OUT2
                                                 echo "Running command ..."
-                                                echo "$JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind k=$k"
+                                                echo "$JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind k=$k"
                                                 echo "---- `date`"
-                                               $JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind k=$k
+                                               $JVM $HYPERK_jar dataFolder=${input_data} outputFolder=$OUT2 dataFile=${dataset}.hg snapshot=${snapshot} queryFile=${queryFile} numLandmarks=$l samplePerc=${defaults[1]} landmarkSelection=$strategy store=${defaults[5]} landmarkAssignment=$landmarkAssignment lb=${defaults[3]} maxS=${defaults[4]} alpha=$alpha beta=$beta seed=$run isApproximate=$isApproximate kind=$kind k=$k
                                         done
                                 fi
 			done
@@ -353,9 +353,9 @@ do
                 mkdir -p $OUTPUT
 
                 echo "Running command ..."
-                echo "$JVM $LINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg maxS=${defaults[4]}"
+                echo "$JVM $LINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} maxS=${defaults[4]}"
                 echo "---- `date`"
-                $JVM $LINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg maxS=${defaults[4]}
+                $JVM $LINE_jar dataFolder=${input_data} outputFolder=$OUTPUT dataFile=${dataset}.hg snapshot=${snapshot} maxS=${defaults[4]}
         fi
 done
 echo 'Terminated.'
@@ -7,10 +7,12 @@ import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.MapSerializer;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import org.javatuples.Pair;
 
 /**
  *
@@ -18,6 +20,10 @@ import org.javatuples.Pair;
  */
 public class CCSerializer extends Serializer<ConnectedComponents> {
 
+    // written before the connected components, to reject files written in another format
+    public static final int MAGIC = 0x48594343;
+    public static final int VERSION = 2;
+
     @Override
     public void write(Kryo kryo, Output output, ConnectedComponents t) {
         // write connected components
@@ -50,22 +56,19 @@ public class CCSerializer extends Serializer<ConnectedComponents> {
         });
     }
     
-    private void writeOverlaps(Output out, Kryo kryo, Map<Pair<Integer, Integer>, Integer> overlaps) {
+    private void writeOverlaps(Output out, Kryo kryo, Long2IntOpenHashMap overlaps) {
         out.writeInt(overlaps.size());
-        overlaps.entrySet().forEach(e -> {
-            kryo.writeObject(out, e.getKey());
-            out.writeInt(e.getValue());
-        });
+        for (Long2IntMap.Entry e : overlaps.long2IntEntrySet()) {
+            out.writeLong(e.getLongKey());
+            out.writeInt(e.getIntValue());
+        }
     }
     
-    private void writeCandNeighs(Output out, Kryo kryo, Collection<Map<Integer, List<Integer>>> cands) {
+    private void writeCandNeighs(Output out, Kryo kryo, Collection<LongArrayList> cands) {
         out.writeInt(cands.size());
-        for (Map<Integer, List<Integer>> map : cands) {
-            out.writeInt(map.size());
-            map.entrySet().forEach(entry -> {
-                out.writeInt(entry.getKey());
-                kryo.writeObject(out, entry.getValue(), kryo.getSerializer(java.util.ArrayList.class));
-            });
+        for (LongArrayList pairs : cands) {
+            out.writeInt(pairs.size());
+            out.writeLongs(pairs.elements(), 0, pairs.size());
         }
     }
     
@@ -95,27 +98,22 @@ public class CCSerializer extends Serializer<ConnectedComponents> {
         return ccs;
     }
     
-    private Map<Pair<Integer, Integer>, Integer> readOverlaps(Input input, Kryo kryo) {
+    private Long2IntOpenHashMap readOverlaps(Input input, Kryo kryo) {
         int size = input.readInt();
-        Map<Pair<Integer, Integer>, Integer> overlaps = Maps.newHashMapWithExpectedSize(size);
+        Long2IntOpenHashMap overlaps = new Long2IntOpenHashMap(size);
         for (int i = 0; i < size; i++) {
-            Pair<Integer, Integer> p = kryo.readObject(input, org.javatuples.Pair.class);
+            long p = input.readLong();
             overlaps.put(p, input.readInt());
         }
         return overlaps;
     }
     
-    private List<Map<Integer, List<Integer>>> readCandNeighs(Input input, Kryo kryo) {
-        List<Map<Integer, List<Integer>>> cands = Lists.newArrayList();
+    private List<LongArrayList> readCandNeighs(Input input, Kryo kryo) {
+        List<LongArrayList> cands = Lists.newArrayList();
         int numLists = input.readInt();
         for (int i = 0; i < numLists; i++) {
-            int mapSize = input.readInt();
-            Map<Integer, List<Integer>> map = Maps.newHashMap();
-            for (int j = 0; j < mapSize; j++) {
-                int key = input.readInt();
-                map.put(key, (List<Integer>) kryo.readObject(input, java.util.ArrayList.class));
-            }
-            cands.add(map);
+            int size = input.readInt();
+            cands.add(LongArrayList.wrap(input.readLongs(size)));
         }
         return cands;
     }
@@ -0,0 +1,259 @@
+package eu.centai.hyped.cc;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchy of the s-connected components for all s.
+ * For each s, the id of the s-cc including each hyperedge is stored in an
+ * array indexed by hyperedge, and the hyperedges of the s-ccs are grouped in
+ * a single array where each s-cc is a range, in increasing order of id.
+ * Since each s-cc is included in an (s-1)-cc, each s-cc also stores the id of
+ * the (s-1)-cc including it, so that the components form a tree across s.
+ * The levels are independent of each other, so they can be added for the
+ * values of s in any order, each in time linear in the number of hyperedges.
+ * The id of an s-cc is its position in the list of s-ccs it was built from.
+ *
+ * @author giulia
+ */
+public class ComponentTree {
+
+    // s-ccs for each s; null if not stored
+    private Level[] levels;
+    // number of hyperedge ids covered by the levels
+    private int numIds;
+
+    public ComponentTree() {
+        this.levels = new Level[1];
+    }
+
+    /**
+     * s-connected components for a given s.
+     */
+    private static class Level {
+        // id of the s-cc including each hyperedge; -1 if none
+        private final int[] ccOf;
+        // hyperedges grouped by s-cc, in increasing order of id
+        private final int[] members;
+        // the hyperedges of s-cc c are in members[start[c], start[c+1])
+        private final int[] start;
+        // id of the (s-1)-cc including each s-cc; -1 if not stored
+        private final int[] parent;
+
+        Level(int[] ccOf, int[] members, int[] start) {
+            this.ccOf = ccOf;
+            this.members = members;
+            this.start = start;
+            this.parent = new int[start.length - 1];
+            Arrays.fill(parent, -1);
+        }
+
+        int getNumCCs() {
+            return parent.length;
+        }
+
+        /**
+         *
+         * @param coarser level of s-1
+         */
+        void setParents(Level coarser) {
+            for (int c = 0; c < parent.length; c++) {
+                if (start[c] == start[c + 1]) {
+                    continue;
+                }
+                int first = members[start[c]];
+                parent[c] = first < coarser.ccOf.length ? coarser.ccOf[first] : -1;
+            }
+        }
+    }
+
+    /**
+     * Stores the s-connected components, if they have not been stored yet.
+     * The s-ccs must be nested into the s-ccs already stored for the other s.
+     *
+     * @param thisCCs s-connected components
+     * @param s min overlap size
+     */
+    public void addLevel(List<List<Integer>> thisCCs, int s) {
+        if (hasLevel(s)) {
+            return;
+        }
+        int maxId = -1;
+        int numMembers = 0;
+        for (List<Integer> cc : thisCCs) {
+            for (int e : cc) {
+                maxId = Math.max(maxId, e);
+            }
+            numMembers += cc.size();
+        }
+        int[] ccOf = new int[maxId + 1];
+        Arrays.fill(ccOf, -1);
+        int[] start = new int[thisCCs.size() + 1];
+        for (int c = 0; c < thisCCs.size(); c++) {
+            for (int e : thisCCs.get(c)) {
+                ccOf[e] = c;
+            }
+            start[c + 1] = start[c] + thisCCs.get(c).size();
+        }
+        // counting sort by s-cc, scanning the hyperedges by increasing id
+        int[] members = new int[numMembers];
+        int[] next = Arrays.copyOf(start, thisCCs.size());
+        for (int e = 0; e <= maxId; e++) {
+            if (ccOf[e] != -1) {
+                members[next[ccOf[e]]++] = e;
+            }
+        }
+        Level level = new Level(ccOf, members, start);
+        if (s >= levels.length) {
+            levels = Arrays.copyOf(levels, s + 1);
+        }
+        levels[s] = level;
+        numIds = Math.max(numIds, maxId + 1);
+        // link the level to the (s-1)-ccs, and the (s+1)-ccs to the level
+        if (hasLevel(s - 1)) {
+            level.setParents(levels[s - 1]);
+        }
+        if (hasLevel(s + 1)) {
+            levels[s + 1].setParents(level);
+        }
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @return true if the s-ccs are stored
+     */
+    public boolean hasLevel(int s) {
+        return s > 0 && s < levels.length && levels[s] != null;
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @return number of s-ccs
+     */
+    public int getNumSCCs(int s) {
+        return hasLevel(s) ? levels[s].getNumCCs() : 0;
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @param cc_id id of s-cc
+     * @return size of the s-cc with id cc_id; 0 if not stored
+     */
+    public int getSizeOf(int s, int cc_id) {
+        if (!hasLevel(s) || cc_id < 0 || cc_id >= levels[s].getNumCCs()) {
+            return 0;
+        }
+        return levels[s].start[cc_id + 1] - levels[s].start[cc_id];
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @param cc_id id of s-cc
+     * @return id of the (s-1)-cc including the s-cc with id cc_id; -1 if not
+     * stored
+     */
+    public int getParent(int s, int cc_id) {
+        if (!hasLevel(s) || cc_id < 0 || cc_id >= levels[s].getNumCCs()) {
+            return -1;
+        }
+        return levels[s].parent[cc_id];
+    }
+
+    /**
+     *
+     * @param e hyperedge
+     * @param s min overlap size
+     * @return id of the s-cc including e, if any; -1 otherwise
+     */
+    public int getIdOfSCC(int e, int s) {
+        if (!hasLevel(s)) {
+            return -1;
+        }
+        int[] ccOf = levels[s].ccOf;
+        return e >= 0 && e < ccOf.length ? ccOf[e] : -1;
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @return id of the s-cc including each hyperedge, or -1 if the hyperedge
+     * is not in any s-cc; null if the s-ccs are not stored
+     */
+    public int[] getMemberships(int s) {
+        if (!hasLevel(s)) {
+            return null;
+        }
+        int[] ccOf = levels[s].ccOf;
+        int[] memberships = Arrays.copyOf(ccOf, numIds);
+        Arrays.fill(memberships, ccOf.length, numIds, -1);
+        return memberships;
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @param cc_id id of s-cc
+     * @return hyperedges in the s-cc with id cc_id, in increasing order of id
+     */
+    public List<Integer> getSCC(int s, int cc_id) {
+        Level level = levels[s];
+        return new SCCView(level.members, level.start[cc_id], level.start[cc_id + 1]);
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @return s-connected components, each with the hyperedges in increasing
+     * order of id; empty if not stored
+     */
+    public List<List<Integer>> getSCCs(int s) {
+        int numCCs = getNumSCCs(s);
+        return new AbstractList<List<Integer>>() {
+
+            @Override
+            public List<Integer> get(int cc_id) {
+                return getSCC(s, cc_id);
+            }
+
+            @Override
+            public int size() {
+                return numCCs;
+            }
+        };
+    }
+
+    /**
+     * Read-only view of the range of an s-cc.
+     */
+    private static class SCCView extends AbstractList<Integer> {
+
+        private final int[] members;
+        private final int from;
+        private final int to;
+
+        SCCView(int[] members, int from, int to) {
+            this.members = members;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Integer get(int i) {
+            if (i < 0 || i >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + (to - from));
+            }
+            return members[from + i];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package eu.centai.hyped.cc;
+
+import com.google.common.collect.Maps;
+import eu.centai.hypeq.structures.LabeledNode;
+import eu.centai.hypeq.structures.LineGraph;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.javatuples.Pair;
+
+/**
+ * Lock-free union-find that can be shared by the threads of a parallel stream.
+ * <p>
+ * Roots are linked by index, with a compare-and-set on the parent of the root
+ * with the lower index, so that each element has a parent with an index not
+ * lower than its own and the trees are always acyclic. The root of each set
+ * is then its element with the highest index, whatever the order in which
+ * the unions are executed. The <em>find</em> operation uses path halving,
+ * where each compare-and-set can only fail if another thread has already
+ * moved the element closer to its root.
+ * <p>
+ * Linking is deterministic rather than randomized, so unions such as
+ * union(i, i+1) can build long chains; path halving shortens them as they
+ * are traversed, but the worst-case bounds of randomized linking do not hold.
+ *
+ * @author giulia
+ */
+public class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parent;  // parent[i] = parent of i
+    private final AtomicInteger count;        // number of components
+
+    /**
+     * Initializes an empty union-find data structure with {@code n} elements
+     * {@code 0} through {@code n-1}. Initially, each elements is in its own
+     * set.
+     *
+     * @param n the number of elements
+     */
+    public ConcurrentUnionFind(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+        count = new AtomicInteger(n);
+    }
+
+    /**
+     * Returns the number of connected components.
+     *
+     * @return the number of connected components
+     */
+    public int count() {
+        return count.get();
+    }
+
+    /**
+     * Returns the root of the tree containing element {@code p}.
+     *
+     * @param p an element
+     * @return the canonical element of the set containing {@code p}
+     */
+    public int find(int p) {
+        while (true) {
+            int q = parent.get(p);
+            if (q == p) {
+                return p;
+            }
+            int r = parent.get(q);
+            if (r == q) {
+                return q;
+            }
+            // path halving
+            parent.compareAndSet(p, q, r);
+            p = r;
+        }
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the the set containing
+     * element {@code q}.
+     *
+     * @param p one element
+     * @param q the other element
+     * @return true if the two sets were different
+     */
+    public boolean union(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) {
+                return false;
+            }
+            // the root with the lower index is linked to the other one
+            int low = Math.min(rootP, rootQ);
+            int high = Math.max(rootP, rootQ);
+            if (parent.compareAndSet(low, low, high)) {
+                count.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     *
+     * @param p hyperedge id
+     * @param q hyperedge id
+     * @return true if the two hyperedges have the same root
+     */
+    public boolean sameCC(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) {
+                return true;
+            }
+            // rootP is still a root, so the two sets were different
+            if (parent.get(rootP) == rootP) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Finds the connected components in the hypergraph, whose neighboring
+     * hyperedges are given as input.
+     *
+     * @param overlaps list of pairs of hyperedges that overlap
+     */
+    public void findCCsHyperEdges(List<Pair<Integer, Integer>> overlaps) {
+        overlaps.parallelStream().forEach(ov -> union(ov.getValue0(), ov.getValue1()));
+    }
+
+    /**
+     * Finds the connected components in the line graph.
+     *
+     * @param graph LineGraph
+     */
+    public void findCCsLineGraph(LineGraph graph) {
+        Map<Integer, Integer> vMap = Maps.newHashMap();
+        int counter = 0;
+        for (LabeledNode v : graph.getNodes()) {
+            vMap.put(v.getIndex(), counter);
+            counter ++;
+        }
+        graph.getAdjMap().int2ObjectEntrySet().parallelStream().forEach(e -> {
+            int p = vMap.get(e.getIntKey());
+            for (int[] pair : e.getValue()) {
+                int q = vMap.get(pair[0]);
+                if (p < q) {
+                    union(p, q);
+                }
+            }
+        });
+        System.out.println(count() + " components");
+    }
+
+}
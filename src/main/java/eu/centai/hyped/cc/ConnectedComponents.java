@@ -6,17 +6,22 @@ import com.google.common.collect.Sets;
 import eu.centai.hypeq.structures.HyperGraph;
 import eu.centai.hypeq.utils.Settings;
 import eu.centai.hypeq.utils.Utils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import java.math.BigInteger;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.apache.commons.math3.util.CombinatoricsUtils;
-import org.javatuples.Pair;
 
 /**
  *
@@ -24,20 +29,28 @@ import org.javatuples.Pair;
  */
 public class ConnectedComponents {
     
-    private Map<Integer, List<List<Integer>>> ccs; // s-connected components for each s
-    // partial overlaps between hyperedges
-    private Map<Pair<Integer, Integer>, Integer> partialOverlaps; 
+    // s-connected components for each s, with the id of the s-cc including 
+    // each hyperedge
+    private ComponentTree tree;
+    // s values for which the s-ccs are stored
+    private BitSet storedSCCs;
+    // s values for which the id of the s-cc including each hyperedge is stored
+    private BitSet storedMemberships;
+    // partial overlaps between hyperedges, for the pairs (e1, e2) packed with 
+    // e1 in the high bits
+    private Long2IntOpenHashMap partialOverlaps; 
     // overlapping hyperedges that belong to the same s-connected component,
-    // and could be direct neighbours
-    private Map<Integer, Map<Integer, List<Integer>>> candsNeigh; 
-    // for each s, for each hyperedge e, store id of s-cc including e
-    private Map<Integer, Map<Integer, Integer>> ccPerHyperedge;
+    // and could be direct neighbours, as pairs (e1, e2) packed with e1 in the
+    // high bits, for each s
+    private Int2ObjectOpenHashMap<LongArrayList> candsNeigh; 
     
     public ConnectedComponents() {
-        this.ccs = Maps.newHashMap();
-        this.partialOverlaps = Maps.newHashMap();
-        this.candsNeigh = Maps.newHashMap();
-        this.ccPerHyperedge = Maps.newHashMap();
+        this.tree = new ComponentTree();
+        this.storedSCCs = new BitSet();
+        this.storedMemberships = new BitSet();
+        this.partialOverlaps = new Long2IntOpenHashMap();
+        this.partialOverlaps.defaultReturnValue(-1);
+        this.candsNeigh = new Int2ObjectOpenHashMap<>();
     }
     
     /**
@@ -45,7 +58,19 @@ public class ConnectedComponents {
      */
     public void clearStructures() {
         this.partialOverlaps.clear();
+        this.partialOverlaps.trim();
         this.candsNeigh.clear();
+        this.candsNeigh.trim();
+    }
+    
+    /**
+     * 
+     * @param e1 hyperedge id
+     * @param e2 hyperedge id
+     * @return the pair (e1, e2) packed in a long, with e1 in the high bits
+     */
+    public static long pairKey(int e1, int e2) {
+        return ((long) e1 << 32) | (e2 & 0xFFFFFFFFL);
     }
     
     /**
@@ -55,14 +80,15 @@ public class ConnectedComponents {
      * @return partial overlap between e1 and e2 if already computed; -1 otherwise
      */
     public int getOverlap(int e1, int e2) {
-        return partialOverlaps.getOrDefault(new Pair<>(e1, e2), -1);
+        return partialOverlaps.get(pairKey(e1, e2));
     }
     
     /**
      * 
-     * @return all the partial overlaps computed so far
+     * @return all the partial overlaps computed so far, for the pairs (e1, e2)
+     * packed with e1 in the high bits
      */
-    public Map<Pair<Integer, Integer>, Integer> getOverlaps() {
+    public Long2IntOpenHashMap getOverlaps() {
         return partialOverlaps;
     }
     
@@ -71,8 +97,9 @@ public class ConnectedComponents {
      * 
      * @param partialOverlaps all the partial overlaps
      */
-    public void setOverlaps(Map<Pair<Integer, Integer>, Integer> partialOverlaps) {
+    public void setOverlaps(Long2IntOpenHashMap partialOverlaps) {
         this.partialOverlaps = partialOverlaps;
+        this.partialOverlaps.defaultReturnValue(-1);
     }
     
     /**
@@ -82,7 +109,21 @@ public class ConnectedComponents {
      * @param o partial overlap between e1 and e2
      */
     public void addOverlap(int e1, int e2, int o) {
-        partialOverlaps.put(new Pair<>(e1, e2), o);
+        partialOverlaps.put(pairKey(e1, e2), o);
+    }
+    
+    /**
+     * 
+     * @param s min overlap size
+     * @return candidate neighbours found for s
+     */
+    private LongArrayList getCandsNeigh(int s) {
+        LongArrayList tmp = candsNeigh.get(s);
+        if (tmp == null) {
+            tmp = new LongArrayList();
+            candsNeigh.put(s, tmp);
+        }
+        return tmp;
     }
     
     /**
@@ -93,38 +134,52 @@ public class ConnectedComponents {
      * @param s s for which e1 and e2 belong to the same s-connected component
      */
     public void addCandidateNeighbourPair(int e1, int e2, int s) {
-        Map<Integer, List<Integer>> tmp = candsNeigh.getOrDefault(s, Maps.newHashMap());
-        List<Integer> tmpList = tmp.getOrDefault(e1, Lists.newArrayList());
-        tmpList.add(e2);
-        tmp.put(e1, tmpList);
-        candsNeigh.put(s, tmp);
+        getCandsNeigh(s).add(pairKey(e1, e2));
     }
     
     /**
+     * Adds the pairs (e1, e2), for each e2 in cands, of hyperedges with 
+     * overlap that could be >= s.
      * 
-     * @return candidate neighbors for each hyperedge, discovered during the 
-     * search for the connected components
+     * @param e1 hyperedge id
+     * @param cands hyperedge ids
+     * @param s s for which the pairs belong to the same s-connected component
      */
-    public Collection<Map<Integer, List<Integer>>> getCandsNeigh() {
+    public void addCandidateNeighbours(int e1, IntCollection cands, int s) {
+        LongArrayList tmp = getCandsNeigh(s);
+        IntIterator it = cands.iterator();
+        while (it.hasNext()) {
+            tmp.add(pairKey(e1, it.nextInt()));
+        }
+    }
+    
+    /**
+     * 
+     * @return candidate neighbors discovered during the search for the 
+     * connected components, as pairs (e1, e2) packed with e1 in the high bits
+     */
+    public Collection<LongArrayList> getCandsNeigh() {
         return candsNeigh.values();
     }
     
     /**
      * Method used when reading the oracle from disk.
      * 
-     * @param cands candidate neighbors for each hyperedge
+     * @param cands candidate neighbors, as pairs (e1, e2) packed with e1 in 
+     * the high bits
      */
-    public void setCandsNeigh(Collection<Map<Integer, List<Integer>>> cands) {
-        for (Map<Integer, List<Integer>> map : cands) {
-            this.candsNeigh.put(candsNeigh.size(), map);
+    public void setCandsNeigh(Collection<LongArrayList> cands) {
+        for (LongArrayList pairs : cands) {
+            this.candsNeigh.put(candsNeigh.size(), pairs);
         }
     }
     
     /**
      * 
-     * @return pairs of overlapping hyperedges found so far
+     * @return pairs of overlapping hyperedges found so far, packed with e1 in
+     * the high bits
      */
-    public Collection<Pair<Integer, Integer>> getOverlappingPairs() {
+    public LongSet getOverlappingPairs() {
         return partialOverlaps.keySet();
     }
     
@@ -137,9 +192,29 @@ public class ConnectedComponents {
      * @return true if the s-connected components have been stored; false otherwise
      */
     public boolean addSCCs(List<List<Integer>> thisCCs, int s) {
+        return addSCCs(thisCCs, s, false);
+    }
+    
+    /**
+     * Stores the s-connected components of the hypergraph, if they are not all
+     * singletons, and optionally, for each hyperedge e, the id of the s-cc 
+     * including e. The s-ccs are added to the tree only once.
+     * 
+     * @param thisCCs s-connected components
+     * @param s min overlap size
+     * @param withMemberships whether the memberships should be stored
+     * @return true if the s-connected components have been stored; false otherwise
+     */
+    public boolean addSCCs(List<List<Integer>> thisCCs, int s, boolean withMemberships) {
         int maxSize = thisCCs.stream().mapToInt(l -> l.size()).max().orElse(0);
+        if (maxSize > 1 || withMemberships) {
+            tree.addLevel(thisCCs, s);
+        }
+        if (withMemberships) {
+            storedMemberships.set(s);
+        }
         if (maxSize > 1) {
-            ccs.put(s, thisCCs);
+            storedSCCs.set(s);
             return true;
         }
         return false;
@@ -151,15 +226,8 @@ public class ConnectedComponents {
      * @param s min overlap size
      */
     public void addMemberships(List<List<Integer>> thisCCs, int s) {
-        Map<Integer, Integer> tmp = Maps.newHashMap();
-        for (int i = 0; i < thisCCs.size(); i++) {
-            final int id = i;
-            tmp.putAll(thisCCs.get(i).parallelStream()
-                    .map(e -> new Pair<Integer, Integer>(e, id))
-                    .collect(Collectors.toMap(p -> p.getValue0(), p -> p.getValue1())));
-            
-        }
-        ccPerHyperedge.put(s, tmp);
+        tree.addLevel(thisCCs, s);
+        storedMemberships.set(s);
     }
     
     /**
@@ -169,15 +237,26 @@ public class ConnectedComponents {
      * @return id of the s-cc including e, if any; -1 otherwise
      */
     public int getIdOfSCC(int e, int s) {
-        return ccPerHyperedge.getOrDefault(s, Maps.newHashMap()).getOrDefault(e, -1);
+        return storedMemberships.get(s) ? tree.getIdOfSCC(e, s) : -1;
     }
     
     /**
+     * Method used when reading the connected components from disk.
      * 
      * @param ccPerHyperedge for each s, for each hyperedge e, id of the s-cc including e
      */
     public void setCCPerHyperedge(Map<Integer, Map<Integer, Integer>> ccPerHyperedge) {
-        this.ccPerHyperedge = ccPerHyperedge;
+        ccPerHyperedge.entrySet().forEach(entry -> {
+            int numCCs = entry.getValue().values().stream().mapToInt(id -> id + 1).max().orElse(0);
+            List<List<Integer>> thisCCs = Lists.newArrayList();
+            for (int i = 0; i < numCCs; i++) {
+                thisCCs.add(Lists.newArrayList());
+            }
+            entry.getValue().entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(en -> thisCCs.get(en.getValue()).add(en.getKey()));
+            addMemberships(thisCCs, entry.getKey());
+        });
     }
     
     /**
@@ -186,7 +265,7 @@ public class ConnectedComponents {
      * @return s-connected components
      */
     public List<List<Integer>> getSCCs(int s) {
-        return ccs.getOrDefault(s, Lists.newArrayList());
+        return storedSCCs.get(s) ? tree.getSCCs(s) : Lists.newArrayList();
     }
     
     /**
@@ -195,7 +274,10 @@ public class ConnectedComponents {
      * @param ccs s-connected components for each s
      */
     public void setAllSCCs(Map<Integer, List<List<Integer>>> ccs) {
-        this.ccs = ccs;
+        ccs.entrySet().forEach(entry -> {
+            tree.addLevel(entry.getValue(), entry.getKey());
+            storedSCCs.set(entry.getKey());
+        });
     }
     
     /**
@@ -205,11 +287,7 @@ public class ConnectedComponents {
      * @return size of the s-cc with id cc_id
      */
     public int getSizeOf(int s, int cc_id) {
-        List<List<Integer>> tmp = ccs.getOrDefault(s, Lists.newArrayList());
-        if (tmp.size() <= cc_id) {
-            return 0;
-        }
-        return tmp.get(cc_id).size();
+        return storedSCCs.get(s) ? tree.getSizeOf(s, cc_id) : 0;
     }
     
     /**
@@ -218,7 +296,7 @@ public class ConnectedComponents {
      * @return true if there exists some s-cc
      */
     public boolean contains(int s) {
-        return ccs.containsKey(s);
+        return storedSCCs.get(s);
     }
     
     /**
@@ -226,7 +304,7 @@ public class ConnectedComponents {
      * @return true if the connected components have not been found yet
      */
     public boolean isEmpty() {
-        return ccs.isEmpty();
+        return storedSCCs.isEmpty();
     }
     
     /**
@@ -234,6 +312,8 @@ public class ConnectedComponents {
      * @return for each s, the s-connected components stored
      */
     public Map<Integer, List<List<Integer>>> getAllSCCs() {
+        Map<Integer, List<List<Integer>>> ccs = Maps.newHashMap();
+        storedSCCs.stream().forEach(s -> ccs.put(s, tree.getSCCs(s)));
         return ccs;
     }
     
@@ -242,7 +322,7 @@ public class ConnectedComponents {
      * @return number of s values, for which the s-connected components are stored
      */
     public int size() {
-        return ccs.size();
+        return storedSCCs.cardinality();
     }
     
     /**
@@ -250,7 +330,37 @@ public class ConnectedComponents {
      * @return for each s, for each hyperedge e, the id of the s-cc including e 
      */
     public Map<Integer, Map<Integer, Integer>> getCCPerHyperEdge() {
+        Map<Integer, Map<Integer, Integer>> ccPerHyperedge = Maps.newHashMap();
+        storedMemberships.stream().forEach(s -> {
+            Map<Integer, Integer> tmp = Maps.newHashMap();
+            for (int i = 0; i < tree.getNumSCCs(s); i++) {
+                for (int e : tree.getSCC(s, i)) {
+                    tmp.put(e, i);
+                }
+            }
+            ccPerHyperedge.put(s, tmp);
+        });
         return ccPerHyperedge;
     }
     
+    /**
+     * 
+     * @return for each s, the id of the s-cc including each hyperedge, or -1 
+     * if the hyperedge is not in any s-cc; null for the s values for which the
+     * memberships are not stored
+     */
+    public int[][] getAllMemberships() {
+        int[][] memberships = new int[storedMemberships.length()][];
+        storedMemberships.stream().forEach(s -> memberships[s-1] = tree.getMemberships(s));
+        return memberships;
+    }
+    
+    /**
+     * 
+     * @return hierarchy of the s-connected components for all s
+     */
+    public ComponentTree getTree() {
+        return tree;
+    }
+    
 }
@@ -6,10 +6,12 @@ import com.google.common.collect.Sets;
 import eu.centai.hyped.cc.ConnectedComponents;
 import eu.centai.hypeq.oracle.ls.ra.BioConsert;
 import eu.centai.hypeq.structures.HyperGraph;
+import eu.centai.hypeq.structures.search.BFSEngine;
 import eu.centai.hypeq.utils.Settings;
 import eu.centai.hypeq.utils.Utils;
 import gr.james.sampling.LiLSampling;
 import gr.james.sampling.RandomSamplingCollector;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import java.util.Arrays;
@@ -560,8 +562,11 @@ public class LandMarkSelector {
         if (numLandmarks == 0) {
             return landmarks;
         }
-        // distances from landmarks selected
-        Map<Integer, Map<Integer, Integer>> Ldist = Maps.newHashMap();
+        // landmarks from which distances have been computed
+        IntOpenHashSet searched = new IntOpenHashSet();
+        // min distance from the landmarks selected
+        Int2IntOpenHashMap minDist = new Int2IntOpenHashMap();
+        minDist.defaultReturnValue(Integer.MAX_VALUE);
         // hyperedges reachable from any landmark selected
         Set<Integer> reachable = Sets.newHashSet();
         List<Integer> candList = Lists.newArrayList(candidates);
@@ -586,13 +591,16 @@ public class LandMarkSelector {
         selectable.set(b, false);
         while (landmarks.size() < numLandmarks) {
             // find distances from nextL
-            if (!Ldist.containsKey(nextL)) {
-                Ldist.put(nextL, graph.findDistancesFrom(nextL, s));
-                reachable.addAll(Ldist.get(nextL).keySet());
-                
-                Ldist.get(nextL).keySet().stream()
-                        .filter(k -> candMap.containsKey(k))
-                        .forEach(k -> selectable.set(candMap.get(k), false));
+            if (searched.add(nextL)) {
+                BFSEngine bfs = graph.searchFrom(nextL, s);
+                for (int i = 0; i < bfs.getNumReached(); i++) {
+                    int k = bfs.getReached(i);
+                    reachable.add(k);
+                    minDist.put(k, Math.min(minDist.get(k), bfs.getDistance(k)));
+                    if (candMap.containsKey(k)) {
+                        selectable.set(candMap.get(k), false);
+                    }
+                }
             }
             // find farthest hyperedge
             // if some hyperedge is not reachable from any landmark
@@ -612,10 +620,7 @@ public class LandMarkSelector {
                     if (landmarks.contains(e) || !candMap.containsKey(e)) {
                         continue;
                     }
-                    int minD = Integer.MAX_VALUE;
-                    for (Map<Integer, Integer> map : Ldist.values()) {
-                        minD = Math.min(minD, map.getOrDefault(e, Integer.MAX_VALUE));
-                    }
+                    int minD = minDist.get(e);
                     if (minD > max) {
                         nextL = e;
                         max = minD;
@@ -933,9 +938,9 @@ public class LandMarkSelector {
                 .map(p -> graph.bidirectionalSPSearch(
                         p.getValue0(), 
                         p.getValue1(), 
-                        s, 
-                        candsSize))
-                .filter(p -> !p.isEmpty())
+                        s))
+                .filter(p -> p.length > 0)
+                .map(p -> Arrays.stream(p).boxed().collect(Collectors.toCollection(Sets::<Integer>newHashSet)))
                 .collect(Collectors.toList());
     }
     
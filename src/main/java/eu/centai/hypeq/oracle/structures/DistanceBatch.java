@@ -0,0 +1,135 @@
+package eu.centai.hypeq.oracle.structures;
+
+import java.util.Arrays;
+
+/**
+ * Approximate distance profiles of a batch of queries (p,q), stored in
+ * primitive arrays: the lower-bound, upper-bound, and approximate s-distance
+ * of the i-th query are stored in position i * maxS + (s - 1).
+ *
+ * @author giulia
+ */
+public class DistanceBatch {
+
+    private final int[] sources;
+    private final int[] destinations;
+    private final int maxS;
+    // for each query, max s for which the s-distance has been estimated
+    private final int[] numS;
+    private final double[] lowers;
+    private final double[] uppers;
+    private final double[] distances;
+
+    /**
+     * Initialize the batch.
+     *
+     * @param sources first element of each query
+     * @param destinations second element of each query
+     * @param maxS max overlap size s
+     */
+    public DistanceBatch(int[] sources, int[] destinations, int maxS) {
+        this.sources = sources;
+        this.destinations = destinations;
+        this.maxS = maxS;
+        this.numS = new int[sources.length];
+        this.lowers = new double[sources.length * maxS];
+        this.uppers = new double[sources.length * maxS];
+        this.distances = new double[sources.length * maxS];
+        Arrays.fill(lowers, -1);
+        Arrays.fill(uppers, -1);
+        Arrays.fill(distances, -1);
+    }
+
+    /**
+     *
+     * @param i query position
+     * @param s min overlap size
+     * @param lb lower-bound to the s-distance
+     * @param ub upper-bound to the s-distance
+     * @param d approximate s-distance
+     */
+    void set(int i, int s, double lb, double ub, double d) {
+        int pos = i * maxS + s - 1;
+        lowers[pos] = lb;
+        uppers[pos] = ub;
+        distances[pos] = d;
+    }
+
+    /**
+     *
+     * @param i query position
+     * @param numS max s for which the s-distance has been estimated
+     */
+    void setNumS(int i, int numS) {
+        this.numS[i] = numS;
+    }
+
+    /**
+     *
+     * @return number of queries in the batch
+     */
+    public int size() {
+        return sources.length;
+    }
+
+    public int getSource(int i) {
+        return sources[i];
+    }
+
+    public int getDestination(int i) {
+        return destinations[i];
+    }
+
+    /**
+     *
+     * @param i query position
+     * @return max s for which the s-distance of the i-th query has been estimated
+     */
+    public int getNumS(int i) {
+        return numS[i];
+    }
+
+    /**
+     *
+     * @param i query position
+     * @param s min overlap size
+     * @return lower-bound to the s-distance of the i-th query
+     */
+    public double getLowerBound(int i, int s) {
+        return lowers[i * maxS + s - 1];
+    }
+
+    /**
+     *
+     * @param i query position
+     * @param s min overlap size
+     * @return upper-bound to the s-distance of the i-th query
+     */
+    public double getUpperBound(int i, int s) {
+        return uppers[i * maxS + s - 1];
+    }
+
+    /**
+     *
+     * @param i query position
+     * @param s min overlap size
+     * @return approximate s-distance of the i-th query
+     */
+    public double getDistance(int i, int s) {
+        return distances[i * maxS + s - 1];
+    }
+
+    /**
+     *
+     * @param i query position
+     * @return distance profile of the i-th query
+     */
+    public DistanceProfile toProfile(int i) {
+        DistanceProfile dp = new DistanceProfile(sources[i], destinations[i]);
+        for (int s = 1; s <= numS[i]; s++) {
+            dp.addDistance(s, getLowerBound(i, s), getUpperBound(i, s), getDistance(i, s));
+        }
+        return dp;
+    }
+
+}
@@ -10,13 +10,20 @@ import eu.centai.hypeq.utils.Settings;
 import eu.centai.hypeq.utils.StopWatch;
 import eu.centai.hypeq.utils.Utils;
 import eu.centai.hypeq.utils.Writer;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.javatuples.Pair;
@@ -39,15 +46,29 @@ public class DistanceOracle {
     private SDistanceOracle[] oracles;
     // for each s, size of each s-connected component
     private Map<Integer, int[]> ccsSizes;
-    // for each s, for each hyperedge e, store id of s-cc including e
-    private Map<Integer, Map<Integer, Integer>> ccPerHyperedge;
+    // for each s, id of s-cc including each hyperedge (or -1), either on 
+    // the heap or mapped from file; null if not available
+    private IntBuffer[] memberships;
+    // if not null, loads each s-distance oracle on first access
+    private SOracleLoader loader;
+    // s-distance oracles loaded so far, when a loader is set
+    private AtomicReferenceArray<SDistanceOracle> loaded;
+    // last access to each loaded s-distance oracle
+    private long[] lastAccess;
+    private long accessClock;
+    // max number of s-distance oracles kept in memory (0 for no limit)
+    private int maxLoaded;
+    // number of landmarks and of label entries of each s-distance oracle,
+    // when a loader is set, so that they are known without loading it
+    private int[] numLandmarksPerS;
+    private int[] oracleSizePerS;
     
     /**
      * Initialize the distance oracle.
      */
     public DistanceOracle() {
         this.ccsSizes = Maps.newHashMap();
-        this.ccPerHyperedge = Maps.newHashMap();
+        this.memberships = new IntBuffer[0];
     }
     
     /**
@@ -55,6 +76,14 @@ public class DistanceOracle {
      * @return s-distance oracles of this oracle
      */
     public SDistanceOracle[] getSOracles() {
+        if (loader != null) {
+            // load all the s-distance oracles
+            SDistanceOracle[] all = new SDistanceOracle[oracles.length];
+            for (int s = 1; s <= all.length; s++) {
+                all[s-1] = getOracle(s);
+            }
+            return all;
+        }
         return this.oracles;
     }
     
@@ -65,6 +94,53 @@ public class DistanceOracle {
      */
     public void setSOracles(SDistanceOracle[] oracles) {
         this.oracles = oracles;
+        this.loader = null;
+    }
+    
+    /**
+     * Load each s-distance oracle only when it is accessed for the first time.
+     * If maxLoaded is positive, when a new s-distance oracle is loaded the 
+     * least recently used ones are evicted, so that at most maxLoaded 
+     * s-distance oracles are kept in memory.
+     * 
+     * @param numOracles number of s-distance oracles
+     * @param loader loads the s-distance oracle of a given s
+     * @param maxLoaded max number of s-distance oracles in memory (0 for no limit)
+     * @param numLandmarks number of landmarks of each s-distance oracle
+     * @param oracleSizes number of distance pairs stored in each s-distance oracle
+     */
+    public void setSOracleLoader(int numOracles, SOracleLoader loader, int maxLoaded, 
+            int[] numLandmarks, int[] oracleSizes) {
+        this.numLandmarksPerS = numLandmarks;
+        this.oracleSizePerS = oracleSizes;
+        this.oracles = new SDistanceOracle[numOracles];
+        this.loaded = new AtomicReferenceArray<>(numOracles);
+        this.lastAccess = new long[numOracles];
+        this.maxLoaded = maxLoaded;
+        this.loader = loader;
+    }
+    
+    /**
+     * Store sizes and memberships of the s-ccs.
+     * 
+     * @param CCS s-connected components for each s
+     */
+    public void setConnectedComponents(ConnectedComponents CCS) {
+        int[][] memb = CCS.getAllMemberships();
+        this.memberships = new IntBuffer[memb.length];
+        for (int s = 1; s <= memb.length; s++) {
+            memberships[s-1] = memb[s-1] != null ? IntBuffer.wrap(memb[s-1]) : null;
+        }
+        this.ccsSizes = CCS.getAllSCCs()
+                .entrySet()
+                .parallelStream()
+                .map(entry -> {
+                    int[] sizes = new int[entry.getValue().size()];
+                    IntStream.range(0, sizes.length)
+                            .forEach(i -> sizes[i] = entry.getValue().get(i).size());
+                    return new Pair<Integer, int[]>(entry.getKey(), sizes);
+                })
+                .collect(Collectors.toMap(p -> p.getValue0(), p -> p.getValue1()));
     }
     
     /**
@@ -85,20 +161,104 @@ public class DistanceOracle {
     }
     
     /**
+     * The maps are built from the membership arrays at each call, with the 
+     * hyperedges inserted by s-cc.
      * 
      * @return id of s-cc including each hyperedge, for each s.
      */
     public Map<Integer, Map<Integer, Integer>> getCCsMemberships() {
+        Map<Integer, Map<Integer, Integer>> ccPerHyperedge = Maps.newHashMap();
+        for (int s = 1; s <= memberships.length; s++) {
+            IntBuffer memb = memberships[s-1];
+            if (memb == null) {
+                continue;
+            }
+            // sort hyperedges by s-cc
+            int numCCs = 0;
+            for (int e = 0; e < memb.limit(); e++) {
+                numCCs = Math.max(numCCs, memb.get(e) + 1);
+            }
+            int[] offsets = new int[numCCs + 1];
+            for (int e = 0; e < memb.limit(); e++) {
+                if (memb.get(e) != -1) {
+                    offsets[memb.get(e) + 1]++;
+                }
+            }
+            for (int c = 0; c < numCCs; c++) {
+                offsets[c + 1] += offsets[c];
+            }
+            int[] edges = new int[offsets[numCCs]];
+            for (int e = 0; e < memb.limit(); e++) {
+                if (memb.get(e) != -1) {
+                    edges[offsets[memb.get(e)]++] = e;
+                }
+            }
+            Map<Integer, Integer> tmp = Maps.newHashMap();
+            for (int e : edges) {
+                tmp.put(e, memb.get(e));
+            }
+            ccPerHyperedge.put(s, tmp);
+        }
         return ccPerHyperedge;
     }
     
+    /**
+     * 
+     * @return for each s, id of s-cc including each hyperedge, or -1 if the 
+     * hyperedge does not belong to any s-cc; null if not available
+     */
+    public IntBuffer[] getCCsMembershipArrays() {
+        return memberships;
+    }
+    
     /**
      * Method used when reading the oracle from disk.
      * 
-     * @param ccPerHyperedge id of s-cc including each hyperedge, for each s.
+     * @param memberships for each s, id of s-cc including each hyperedge, or 
+     * -1 if the hyperedge does not belong to any s-cc; null if not available
      */
-    public void setCCsMemberships(Map<Integer, Map<Integer, Integer>> ccPerHyperedge) {
-        this.ccPerHyperedge = ccPerHyperedge;
+    public void setCCsMemberships(IntBuffer[] memberships) {
+        this.memberships = memberships;
+    }
+    
+    /**
+     * 
+     * @param s min overlap size
+     * @return hyperedges that belong to some s-cc, in increasing order of id
+     */
+    public List<Integer> getHyperEdgesInSCCs(int s) {
+        List<Integer> edges = Lists.newArrayList();
+        if (hasMemberships(s)) {
+            IntBuffer memb = memberships[s-1];
+            for (int e = 0; e < memb.limit(); e++) {
+                if (memb.get(e) != -1) {
+                    edges.add(e);
+                }
+            }
+        }
+        return edges;
+    }
+    
+    /**
+     * 
+     * @return true if the s-cc memberships are available for some s
+     */
+    private boolean hasMemberships() {
+        for (IntBuffer memb : memberships) {
+            if (memb != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 
+     * @param s min overlap size
+     * @return true if the s-cc memberships are available for s
+     */
+    private boolean hasMemberships(int s) {
+        return s <= memberships.length && memberships[s-1] != null;
     }
     
     /**
@@ -107,11 +267,12 @@ public class DistanceOracle {
      * @return the max s for which e belongs to some s-connected component; 1 otherwise
      */
     public int getMaxHEsMembership(int e) {
-        return ccPerHyperedge.keySet()
-                .stream()
-                .filter(k -> ccPerHyperedge.get(k).containsKey(e))
-                .mapToInt(x -> x)
-                .max().orElse(1);
+        for (int s = memberships.length; s > 1; s--) {
+            if (getIdOfSCC(e, s) != -1) {
+                return s;
+            }
+        }
+        return 1;
     }
     
     /**
@@ -149,17 +310,7 @@ public class DistanceOracle {
         ConnectedComponents CCS = graph.findConnectedComponents(maxS);
         System.out.println("ccs found in (s) " + watch.getElapsedTimeInSec());
         // store useful info
-        this.ccPerHyperedge = CCS.getCCPerHyperEdge();
-        this.ccsSizes = CCS.getAllSCCs()
-                .entrySet()
-                .parallelStream()
-                .map(entry -> {
-                    int[] sizes = new int[entry.getValue().size()];
-                    IntStream.range(0, sizes.length)
-                            .forEach(i -> sizes[i] = entry.getValue().get(i).size());
-                    return new Pair<Integer, int[]>(entry.getKey(), sizes);
-                })
-                .collect(Collectors.toMap(p -> p.getValue0(), p -> p.getValue1()));
+        setConnectedComponents(CCS);
         // update neighbour data if needed
         watch.start();
         if (!isPrecomputed) {
@@ -232,8 +383,7 @@ public class DistanceOracle {
             // find s-connected components
             List<Integer> edgeView = graph.getEdgesWithMinSize(s);
             List<List<Integer>> ccs = graph.findSConnectedComponents(edgeView, s);
-            CCS.addMemberships(ccs, s);
-            boolean notTrivial = CCS.addSCCs(ccs, s);
+            boolean notTrivial = CCS.addSCCs(ccs, s, true);
             // select landmarks
             if (!edgeView.isEmpty() && notTrivial) {
                 LandMarkSelector ls = new LandMarkSelector(graph, selMethod, seed);
@@ -242,17 +392,7 @@ public class DistanceOracle {
             }
         }
         // store useful info
-        this.ccPerHyperedge = CCS.getCCPerHyperEdge();
-        this.ccsSizes = CCS.getAllSCCs()
-                .entrySet()
-                .parallelStream()
-                .map(entry -> {
-                    int[] sizes = new int[entry.getValue().size()];
-                    IntStream.range(0, sizes.length)
-                            .forEach(i -> sizes[i] = entry.getValue().get(i).size());
-                    return new Pair<Integer, int[]>(entry.getKey(), sizes);
-                })
-                .collect(Collectors.toMap(p -> p.getValue0(), p -> p.getValue1()));
+        setConnectedComponents(CCS);
         return CCS;
     }
     
@@ -319,7 +459,7 @@ public class DistanceOracle {
         for (int s = 1; s <= oracles.length; s++) {
             Map<Integer, Integer> lbs = Maps.newHashMap();
             Map<Integer, Integer> ubs = Maps.newHashMap();
-            Map<Integer, Map<Integer, Integer>> distances = oracles[s-1].getLabels();
+            Map<Integer, Map<Integer, Integer>> distances = getOracle(s).getLabels();
             // if kind = edge, it includes only v; otherwise it includes all the 
             // hyperedges including v
             List<Integer> sources = Lists.newArrayList();
@@ -401,7 +541,7 @@ public class DistanceOracle {
     public List<Integer> getSHyperEdgesOf(Map<Integer, Set<Integer>> vMap, int v, int s) {
         return vMap.getOrDefault(v, Sets.newHashSet())
                 .stream()
-                .filter(e -> ccPerHyperedge.getOrDefault(s, Maps.newHashMap()).containsKey(e))
+                .filter(e -> getIdOfSCC(e, s) != -1)
                 .collect(Collectors.toList());
     }
     
@@ -427,42 +567,208 @@ public class DistanceOracle {
      * @return lower-bound, upper-bound, and approximate s-distance between e1 and e2
      */
     public Triplet<Double, Double, Double> getApproxSDistanceBetween(int e1, int e2, int s, int lb) {
-        if (!ccPerHyperedge.isEmpty()) {
-            if (!ccPerHyperedge.containsKey(s)) {
-                return new Triplet<>(-1., -1., -1.);
-            }
-            int cc1 = getIdOfSCC(e1, s);
-            int cc2 = getIdOfSCC(e2, s);
+        LabelStore labels = getOracle(s).getLabelStore();
+        double[] res = new double[3];
+        approxSDistance(labels, getIdOfSCC(e1, s), labels.getRow(e1), getIdOfSCC(e2, s), labels.getRow(e2), s, lb, res);
+        return new Triplet<>(res[0], res[1], res[2]);
+    }
+    
+    /**
+     * Approximate s-distance between two hyperedges, given their s-ccs and 
+     * their rows in the label store.
+     * 
+     * @param labels labels of the s-distance oracle
+     * @param cc1 id of the s-cc including the first hyperedge
+     * @param r1 row of the first hyperedge in the label store
+     * @param cc2 id of the s-cc including the second hyperedge
+     * @param r2 row of the second hyperedge in the label store
+     * @param s min overlap size
+     * @param lb min component size
+     * @param res array storing lower-bound, upper-bound, and approximate s-distance
+     */
+    private void approxSDistance(LabelStore labels, int cc1, int r1, int cc2, int r2, int s, int lb, double[] res) {
+        Arrays.fill(res, -1.);
+        if (hasMemberships()) {
             // if they do not belong to the same s-connected component
             // or at least one of them does not belong to any s-cc
-            if (cc1 != cc2 || cc1 == -1 || cc2 == -1) {
-                return new Triplet<>(-1., -1., -1.);
+            if (!hasMemberships(s) || cc1 != cc2 || cc1 == -1 || cc2 == -1) {
+                return;
             }
             // if they belong to a small s-cc
             int size = getSizeOf(s, cc1);
-            if (size <= lb && !oracles[s-1].hasLabel(e1)) {
-                return new Triplet<>(1., 1. * size, getApproxDistance(size, 1));
+            if (size <= lb && r1 < 0) {
+                res[0] = 1.;
+                res[1] = 1. * size;
+                res[2] = getApproxDistance(size, 1);
+                return;
             }
         }
         // in all the other cases
-        int pUp = Integer.MAX_VALUE;
-        double pLo = -1;
-        Map<Integer, Integer> otMap1 = oracles[s-1].getLabel(e1);
-        Map<Integer, Integer> otMap2 = oracles[s-1].getLabel(e2);
-        // find lower and upper bounds                    
-        for (Map.Entry<Integer, Integer> entry : otMap2.entrySet()) {
-            if (otMap1.containsKey(entry.getKey())) {
-                int thisUpper = otMap1.get(entry.getKey()) + entry.getValue();
-                int thisLower = Math.abs(otMap1.get(entry.getKey()) - entry.getValue());
-                pUp = Math.min(pUp, thisUpper);
-                pLo = Math.max(pLo, thisLower);
-            }
+        if (r1 < 0 || r2 < 0) {
+            return;
         }
-        if ((pUp == -1) || (pLo == -1)) {
-            return new Triplet<>(-1., -1., -1.);
+        // find lower and upper bounds by merging the two labels
+        long bounds = labels.getBounds(r1, r2);
+        if (bounds == -1) {
+            return;
         }
+        double pLo = (int) (bounds >>> 32);
+        int pUp = (int) bounds;
         // return lower-bound, upper-bound, median
-        return new Triplet<>(pLo, 1.*pUp, pLo + (pUp - pLo) / 2);
+        res[0] = pLo;
+        res[1] = 1.*pUp;
+        res[2] = pLo + (pUp - pLo) / 2;
+    }
+    
+    /**
+     * Approximate the distance profiles of a batch of queries (p,q).
+     * Queries are grouped by p, so that the hyperedges, s-ccs, and labels of 
+     * each element are retrieved only once, and all the s-distances of each 
+     * query are estimated in one pass.
+     * 
+     * @param vMap for each vertex, the set of hyperedges including that vertex
+     * @param sources first element of each query
+     * @param destinations second element of each query
+     * @param maxS max overlap size s
+     * @param lb min component size
+     * @param kind kind of distance to compute, among "edge" (edge to edge),
+     * "vertex" (vertex to vertex), and "both" (vertex to edge)
+     * @return lower-bound, upper-bound, and approximate s-distance of each 
+     * query, for each s up to the max s for which both elements belong to 
+     * some s-cc
+     */
+    public DistanceBatch getApproxDistances(
+            Map<Integer, Set<Integer>> vMap,
+            int[] sources,
+            int[] destinations,
+            int maxS,
+            int lb,
+            String kind) {
+        DistanceBatch batch = new DistanceBatch(sources, destinations, maxS);
+        boolean isVertex = kind.equalsIgnoreCase("vertex");
+        boolean isEdge = kind.equalsIgnoreCase("edge");
+        LabelStore[] labels = new LabelStore[maxS];
+        for (int s = 1; s <= Math.min(maxS, getNumSOracles()); s++) {
+            labels[s-1] = getOracle(s).getLabelStore();
+        }
+        Int2ObjectOpenHashMap<QueryEnd> srcEnds = getQueryEnds(vMap, sources, !isEdge, maxS, labels);
+        Int2ObjectOpenHashMap<QueryEnd> dstEnds = getQueryEnds(vMap, destinations, isVertex, maxS, labels);
+        // group queries by source
+        long[] keys = new long[sources.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) sources[i] << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+        IntArrayList groups = new IntArrayList();
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] >>> 32 != keys[i-1] >>> 32) {
+                groups.add(i);
+            }
+        }
+        groups.add(keys.length);
+        IntStream.range(0, groups.size() - 1).parallel().forEach(g -> {
+            QueryEnd src = srcEnds.get((int) (keys[groups.getInt(g)] >>> 32));
+            double[] res = new double[3];
+            for (int k = groups.getInt(g); k < groups.getInt(g + 1); k++) {
+                int i = (int) keys[k];
+                QueryEnd dst = dstEnds.get(destinations[i]);
+                int numS = Math.min(src.maxS, dst.maxS);
+                batch.setNumS(i, numS);
+                boolean common = isVertex && inCommonHyperEdge(vMap, sources[i], destinations[i]);
+                for (int s = 1; s <= numS; s++) {
+                    if (common) {
+                        batch.set(i, s, 1., 1., 1.);
+                        continue;
+                    }
+                    // keep the first min approximate distance among all the 
+                    // pairs of hyperedges
+                    double bestLo = -1., bestUp = -1., best = Double.MAX_VALUE;
+                    int[] e1s = src.edges[s-1];
+                    int[] e2s = dst.edges[s-1];
+                    for (int a = 0; a < e1s.length; a++) {
+                        for (int b = 0; b < e2s.length; b++) {
+                            approxSDistance(labels[s-1], 
+                                    src.ccs[s-1][a], src.rows[s-1][a], 
+                                    dst.ccs[s-1][b], dst.rows[s-1][b], 
+                                    s, lb, res);
+                            if (res[0] != -1 && res[2] < best) {
+                                bestLo = res[0];
+                                bestUp = res[1];
+                                best = res[2];
+                            }
+                        }
+                    }
+                    if (best != Double.MAX_VALUE) {
+                        batch.set(i, s, bestLo, bestUp, best);
+                    }
+                }
+            }
+        });
+        return batch;
+    }
+    
+    /**
+     * Hyperedges of an element of a query, with their s-ccs and rows in the 
+     * label store, for each s.
+     */
+    private static class QueryEnd {
+        
+        // max s for which the element belongs to some s-cc
+        private int maxS;
+        private int[][] edges;
+        private int[][] ccs;
+        private int[][] rows;
+    }
+    
+    /**
+     * 
+     * @param vMap for each vertex, the set of hyperedges including that vertex
+     * @param ids elements of the queries
+     * @param areVertices whether the elements are vertices or hyperedges
+     * @param maxS max overlap size s
+     * @param labels labels of the s-distance oracles
+     * @return hyperedges, s-ccs, and rows in the label store of each element
+     */
+    private Int2ObjectOpenHashMap<QueryEnd> getQueryEnds(
+            Map<Integer, Set<Integer>> vMap, 
+            int[] ids, 
+            boolean areVertices, 
+            int maxS,
+            LabelStore[] labels) {
+        int[] distinct = new IntOpenHashSet(ids).toIntArray();
+        QueryEnd[] ends = new QueryEnd[distinct.length];
+        IntStream.range(0, distinct.length).parallel().forEach(i -> {
+            QueryEnd end = new QueryEnd();
+            int x = distinct[i];
+            if (areVertices) {
+                end.maxS = Math.min(maxS, getSHyperEdgesOf(vMap, x, 1)
+                        .stream()
+                        .mapToInt(e -> getMaxHEsMembership(e)).max().orElse(0));
+            } else {
+                end.maxS = Math.min(maxS, getMaxHEsMembership(x));
+            }
+            end.edges = new int[end.maxS][];
+            end.ccs = new int[end.maxS][];
+            end.rows = new int[end.maxS][];
+            for (int s = 1; s <= end.maxS; s++) {
+                int[] edges = areVertices 
+                        ? getSHyperEdgesOf(vMap, x, s).stream().mapToInt(e -> e).toArray() 
+                        : new int[]{x};
+                end.edges[s-1] = edges;
+                end.ccs[s-1] = new int[edges.length];
+                end.rows[s-1] = new int[edges.length];
+                for (int j = 0; j < edges.length; j++) {
+                    end.ccs[s-1][j] = getIdOfSCC(edges[j], s);
+                    end.rows[s-1][j] = labels[s-1].getRow(edges[j]);
+                }
+            }
+            ends[i] = end;
+        });
+        Int2ObjectOpenHashMap<QueryEnd> result = new Int2ObjectOpenHashMap<>(distinct.length);
+        for (int i = 0; i < distinct.length; i++) {
+            result.put(distinct[i], ends[i]);
+        }
+        return result;
     }
     
     /**
@@ -567,10 +873,14 @@ public class DistanceOracle {
     
     /**
      * 
-     * @return size of this oracle computed as number of s-distance pairs stored
+     * @return size of this oracle computed as number of s-distance pairs stored;
+     * the s-distance oracles are not loaded if a loader is set
      */
     public int getOracleSize() {
-        return IntStream.range(0, oracles.length).map(i -> oracles[i].getOracleSize()).sum();
+        if (loader != null) {
+            return Arrays.stream(oracleSizePerS).sum();
+        }
+        return IntStream.rangeClosed(1, oracles.length).map(s -> getOracle(s).getOracleSize()).sum();
     }
     
     /**
@@ -579,7 +889,7 @@ public class DistanceOracle {
      */
     public int getCCStrucSize() {
         int sizes = ccsSizes.values().stream().mapToInt(l -> l.length).sum();
-        int membs = ccPerHyperedge.values().stream().mapToInt(d -> d.size()).sum();
+        int membs = Arrays.stream(memberships).mapToInt(m -> m != null ? m.limit() : 0).sum();
         return sizes + membs;
     }
     
@@ -593,10 +903,14 @@ public class DistanceOracle {
     
     /**
      * 
-     * @return number of landmarks used by this oracle
+     * @return number of landmarks used by this oracle; the s-distance oracles
+     * are not loaded if a loader is set
      */
     public int getNumLandmarks() {
-        return IntStream.range(0, oracles.length).map(i -> oracles[i].getNumLandmarks()).sum();
+        if (loader != null) {
+            return Arrays.stream(numLandmarksPerS).sum();
+        }
+        return IntStream.rangeClosed(1, oracles.length).map(s -> getOracle(s).getNumLandmarks()).sum();
     }
     
     /**
@@ -605,7 +919,7 @@ public class DistanceOracle {
      */
     public List<Set<Integer>> getAllLandmarks() {
         List<Set<Integer>> allLands = Lists.newArrayList();
-        for (SDistanceOracle oracle : oracles) {
+        for (SDistanceOracle oracle : getSOracles()) {
             allLands.add(oracle.getLandmarks());
         }
         return allLands;
@@ -617,7 +931,59 @@ public class DistanceOracle {
      * @return s-distance oracle
      */
     public SDistanceOracle getOracle(int s) {
-        return oracles[s-1];
+        if (loader == null) {
+            return oracles[s-1];
+        }
+        // racy update, only used to choose the oracles to evict
+        lastAccess[s-1] = ++accessClock;
+        SDistanceOracle oracle = loaded.get(s-1);
+        return oracle != null ? oracle : load(s);
+    }
+    
+    /**
+     * Load the s-distance oracle, evicting the least recently used ones if 
+     * too many oracles are in memory.
+     * 
+     * @param s min overlap size
+     * @return s-distance oracle
+     */
+    private synchronized SDistanceOracle load(int s) {
+        SDistanceOracle oracle = loaded.get(s-1);
+        if (oracle != null) {
+            return oracle;
+        }
+        try {
+            oracle = loader.load(s);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (maxLoaded > 0) {
+            int numLoaded = 0;
+            for (int i = 0; i < loaded.length(); i++) {
+                numLoaded += loaded.get(i) != null ? 1 : 0;
+            }
+            while (numLoaded >= maxLoaded) {
+                int coldest = -1;
+                for (int i = 0; i < loaded.length(); i++) {
+                    if (loaded.get(i) != null && (coldest == -1 || lastAccess[i] < lastAccess[coldest])) {
+                        coldest = i;
+                    }
+                }
+                loaded.set(coldest, null);
+                numLoaded--;
+            }
+        }
+        loaded.set(s-1, oracle);
+        return oracle;
+    }
+    
+    /**
+     * 
+     * @param s min overlap size
+     * @return true if the s-distance oracle is in memory
+     */
+    public boolean isLoaded(int s) {
+        return loader == null || loaded.get(s-1) != null;
     }
     
     /**
@@ -627,7 +993,10 @@ public class DistanceOracle {
      * @return id of the s-cc including e, if any; -1 otherwise
      */
     public int getIdOfSCC(int e, int s) {
-        return ccPerHyperedge.getOrDefault(s, Maps.newHashMap()).getOrDefault(e, -1);
+        if (s > memberships.length || memberships[s-1] == null || e >= memberships[s-1].limit()) {
+            return -1;
+        }
+        return memberships[s-1].get(e);
     }
     
     /**
@@ -703,6 +1072,7 @@ public class DistanceOracle {
     public Set<Pair<Integer, Integer>> sampleHyperEdges(int sampleSize, int seed) {
         Set<Pair<Integer, Integer>> sample = Sets.newHashSet();
         Random rnd = new Random(seed);
+        Map<Integer, Map<Integer, Integer>> ccPerHyperedge = getCCsMemberships();
         int sumS = ccPerHyperedge.keySet().stream().mapToInt(i -> i).sum();
         int maxS = ccPerHyperedge.keySet().stream().mapToInt(i -> i).max().orElse(0);
         // temporary map
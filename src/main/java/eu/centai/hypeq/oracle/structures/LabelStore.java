@@ -0,0 +1,427 @@
+package eu.centai.hypeq.oracle.structures;
+
+import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Columnar storage of the labels of a s-distance oracle.
+ * Landmarks are identified by their position in the sorted landmark index;
+ * the label of the hyperedge in row r is stored in positions
+ * [offsets[r], offsets[r+1]) of the landmark and distance columns, sorted by
+ * landmark position. Distances are stored as unsigned bytes, or as unsigned
+ * shorts if some distance does not fit in a byte.
+ * Columns are accessed through buffers, so that the store can be either kept
+ * on the heap or mapped from an oracle file.
+ *
+ * @author giulia
+ */
+public class LabelStore {
+
+    public static final int MAX_LANDMARKS = 1 << 16;
+    public static final int MAX_DISTANCE = (1 << 16) - 1;
+    // max ratio between the hyperedge ids covered and the rows for which the
+    // rows are indexed by hyperedge
+    private static final int MAX_SPARSITY = 8;
+
+    // landmark ids, in increasing order
+    private final IntBuffer landmarks;
+    // hyperedges with a label, in increasing order
+    private final IntBuffer edges;
+    private final IntBuffer offsets;
+    // position of the landmark in the landmark index
+    private final ShortBuffer lms;
+    // distances, only one of the two buffers is not null
+    private final ByteBuffer dists;
+    private final ShortBuffer wideDists;
+    // row of each hyperedge, or -1 if none; null if the ids are too sparse
+    private final int[] rowOf;
+
+    public LabelStore(IntBuffer landmarks, IntBuffer edges, IntBuffer offsets, 
+            ShortBuffer lms, ByteBuffer dists, ShortBuffer wideDists) {
+        this.landmarks = landmarks;
+        this.edges = edges;
+        this.offsets = offsets;
+        this.lms = lms;
+        this.dists = dists;
+        this.wideDists = wideDists;
+        this.rowOf = indexRows(edges);
+    }
+
+    /**
+     *
+     * @param edges hyperedges with a label, in increasing order
+     * @return row of each hyperedge, or -1 if the hyperedge has no label; null
+     * if the hyperedge ids are too sparse to be indexed
+     */
+    private static int[] indexRows(IntBuffer edges) {
+        int numRows = edges.limit();
+        if (numRows == 0) {
+            return new int[0];
+        }
+        int maxId = edges.get(numRows - 1);
+        if (edges.get(0) < 0 || (long) maxId + 1 > (long) numRows * MAX_SPARSITY) {
+            return null;
+        }
+        int[] rowOf = new int[maxId + 1];
+        Arrays.fill(rowOf, -1);
+        for (int r = 0; r < numRows; r++) {
+            rowOf[edges.get(r)] = r;
+        }
+        return rowOf;
+    }
+
+    public LabelStore(int[] landmarks, int[] edges, int[] offsets, short[] lms, byte[] dists, short[] wideDists) {
+        this(IntBuffer.wrap(landmarks), 
+                IntBuffer.wrap(edges), 
+                IntBuffer.wrap(offsets), 
+                ShortBuffer.wrap(lms), 
+                dists != null ? ByteBuffer.wrap(dists) : null, 
+                wideDists != null ? ShortBuffer.wrap(wideDists) : null);
+    }
+
+    /**
+     *
+     * @return store without labels
+     */
+    public static LabelStore empty() {
+        return new LabelStore(new int[0], new int[0], new int[1], new short[0], new byte[0], null);
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return row storing the label of e, or -1 if e has no label
+     */
+    public int getRow(int e) {
+        if (rowOf != null) {
+            return e >= 0 && e < rowOf.length ? rowOf[e] : -1;
+        }
+        // binary search if the ids are sparse
+        int lo = 0;
+        int hi = edges.limit() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midE = edges.get(mid);
+            if (midE < e) {
+                lo = mid + 1;
+            } else if (midE > e) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     *
+     * @param r row
+     * @return position of the first entry of row r
+     */
+    public int getStart(int r) {
+        return offsets.get(r);
+    }
+
+    /**
+     *
+     * @param r row
+     * @return position after the last entry of row r
+     */
+    public int getEnd(int r) {
+        return offsets.get(r + 1);
+    }
+
+    /**
+     *
+     * @param i entry position
+     * @return position in the landmark index of the landmark of entry i
+     */
+    public int getLandmarkIndex(int i) {
+        return lms.get(i) & 0xFFFF;
+    }
+
+    /**
+     *
+     * @param i entry position
+     * @return distance stored in entry i
+     */
+    public int getDistance(int i) {
+        return dists != null ? dists.get(i) & 0xFF : wideDists.get(i) & 0xFFFF;
+    }
+
+    /**
+     *
+     * @param index position in the landmark index
+     * @return landmark id
+     */
+    public int getLandmark(int index) {
+        return landmarks.get(index);
+    }
+
+    /**
+     *
+     * @return number of landmarks in the landmark index
+     */
+    public int getNumLandmarks() {
+        return landmarks.limit();
+    }
+
+    /**
+     *
+     * @param r row
+     * @return hyperedge whose label is stored in row r
+     */
+    public int getEdge(int r) {
+        return edges.get(r);
+    }
+
+    /**
+     *
+     * @return landmark ids, in increasing order
+     */
+    public IntBuffer getLandmarkIds() {
+        return landmarks.duplicate();
+    }
+
+    /**
+     *
+     * @return hyperedges with a label, in increasing order
+     */
+    public IntBuffer getEdges() {
+        return edges.duplicate();
+    }
+
+    /**
+     *
+     * @return start of each row in the entry columns
+     */
+    public IntBuffer getOffsets() {
+        return offsets.duplicate();
+    }
+
+    /**
+     *
+     * @return landmark column
+     */
+    public ShortBuffer getLandmarkColumn() {
+        return lms.duplicate();
+    }
+
+    /**
+     *
+     * @return true if distances are stored as shorts
+     */
+    public boolean hasWideDistances() {
+        return dists == null;
+    }
+
+    /**
+     *
+     * @return distance column, or null if distances are stored as shorts
+     */
+    public ByteBuffer getDistanceColumn() {
+        return dists != null ? dists.duplicate() : null;
+    }
+
+    /**
+     *
+     * @return wide distance column, or null if distances are stored as bytes
+     */
+    public ShortBuffer getWideDistanceColumn() {
+        return wideDists != null ? wideDists.duplicate() : null;
+    }
+
+    /**
+     *
+     * @return number of hyperedges with a label
+     */
+    public int getNumRows() {
+        return edges.limit();
+    }
+
+    /**
+     *
+     * @return number of distance pairs stored
+     */
+    public int size() {
+        return lms.limit();
+    }
+
+    /**
+     * Merge the labels in rows r1 and r2 to find lower and upper bounds to the
+     * s-distance between the corresponding hyperedges.
+     *
+     * @param r1 row
+     * @param r2 row
+     * @return lower-bound in the high 32 bits and upper-bound in the low 32
+     * bits, or -1 if the two rows have no landmark in common
+     */
+    public long getBounds(int r1, int r2) {
+        int i = offsets.get(r1);
+        int end1 = offsets.get(r1 + 1);
+        int j = offsets.get(r2);
+        int end2 = offsets.get(r2 + 1);
+        int lo = -1;
+        int up = Integer.MAX_VALUE;
+        while (i < end1 && j < end2) {
+            int l1 = lms.get(i) & 0xFFFF;
+            int l2 = lms.get(j) & 0xFFFF;
+            if (l1 == l2) {
+                int d1 = getDistance(i);
+                int d2 = getDistance(j);
+                up = Math.min(up, d1 + d2);
+                lo = Math.max(lo, Math.abs(d1 - d2));
+            }
+            // advance the row(s) with the smallest landmark
+            i += (l1 <= l2) ? 1 : 0;
+            j += (l2 <= l1) ? 1 : 0;
+        }
+        if (lo == -1) {
+            return -1;
+        }
+        return ((long) lo << 32) | up;
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return s-distances from e to the landmarks
+     */
+    public Map<Integer, Integer> getLabel(int e) {
+        Map<Integer, Integer> label = Maps.newHashMap();
+        int r = getRow(e);
+        if (r >= 0) {
+            for (int i = getStart(r); i < getEnd(r); i++) {
+                label.put(getLandmark(getLandmarkIndex(i)), getDistance(i));
+            }
+        }
+        return label;
+    }
+
+    /**
+     *
+     * @return for each hyperedge with a label, s-distances to the landmarks
+     */
+    public Map<Integer, Map<Integer, Integer>> toMap() {
+        Map<Integer, Map<Integer, Integer>> labels = Maps.newHashMapWithExpectedSize(getNumRows());
+        for (int r = 0; r < getNumRows(); r++) {
+            labels.put(getEdge(r), getLabel(getEdge(r)));
+        }
+        return labels;
+    }
+
+    /**
+     * Accumulates (hyperedge, landmark, distance) triples and packs them into
+     * a LabelStore.
+     */
+    public static class Builder {
+
+        private final IntArrayList edges = new IntArrayList();
+        private final IntArrayList landmarks = new IntArrayList();
+        private final IntArrayList distances = new IntArrayList();
+
+        /**
+         *
+         * @param e hyperedge id
+         * @param l landmark id
+         * @param d s-distance between e and l
+         */
+        public void add(int e, int l, int d) {
+            if (d > MAX_DISTANCE) {
+                throw new IllegalStateException("Distance " + d + " cannot be stored in the oracle.");
+            }
+            edges.add(e);
+            landmarks.add(l);
+            distances.add(d);
+        }
+
+        /**
+         *
+         * @param store labels to add
+         */
+        public void addAll(LabelStore store) {
+            for (int r = 0; r < store.getNumRows(); r++) {
+                for (int i = store.getStart(r); i < store.getEnd(r); i++) {
+                    add(store.getEdge(r), store.getLandmark(store.getLandmarkIndex(i)), store.getDistance(i));
+                }
+            }
+        }
+
+        /**
+         *
+         * @param labels s-distances from hyperedges to landmarks
+         */
+        public void addAll(Map<Integer, Map<Integer, Integer>> labels) {
+            labels.entrySet().stream().forEach(e ->
+                    e.getValue().entrySet().stream().forEach(l -> add(e.getKey(), l.getKey(), l.getValue())));
+        }
+
+        /**
+         *
+         * @return columnar store of the labels added; if a pair (hyperedge,
+         * landmark) was added multiple times, only one distance is kept
+         */
+        public LabelStore build() {
+            IntOpenHashSet distinct = new IntOpenHashSet(landmarks);
+            if (distinct.size() > MAX_LANDMARKS) {
+                throw new IllegalStateException("Too many landmarks: " + distinct.size());
+            }
+            int[] lmIds = distinct.toIntArray();
+            Arrays.sort(lmIds);
+            Int2IntOpenHashMap lmIndex = new Int2IntOpenHashMap(lmIds.length);
+            for (int i = 0; i < lmIds.length; i++) {
+                lmIndex.put(lmIds[i], i);
+            }
+            // key: hyperedge in the high bits, then landmark position and distance
+            long[] keys = new long[edges.size()];
+            int maxD = 0;
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = ((long) edges.getInt(i) << 32) | ((long) lmIndex.get(landmarks.getInt(i)) << 16) | distances.getInt(i);
+                maxD = Math.max(maxD, distances.getInt(i));
+            }
+            Arrays.parallelSort(keys);
+            // remove duplicate (hyperedge, landmark) pairs
+            int n = 0;
+            int numRows = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (n > 0 && keys[n - 1] >>> 16 == keys[i] >>> 16) {
+                    continue;
+                }
+                if (n == 0 || keys[n - 1] >>> 32 != keys[i] >>> 32) {
+                    numRows++;
+                }
+                keys[n++] = keys[i];
+            }
+            int[] rowEdges = new int[numRows];
+            int[] offsets = new int[numRows + 1];
+            short[] lms = new short[n];
+            byte[] dists = maxD <= 0xFF ? new byte[n] : null;
+            short[] wideDists = maxD <= 0xFF ? null : new short[n];
+            int r = -1;
+            for (int i = 0; i < n; i++) {
+                int e = (int) (keys[i] >>> 32);
+                if (r < 0 || rowEdges[r] != e) {
+                    r++;
+                    rowEdges[r] = e;
+                    offsets[r] = i;
+                }
+                lms[i] = (short) (keys[i] >>> 16);
+                if (dists != null) {
+                    dists[i] = (byte) keys[i];
+                } else {
+                    wideDists[i] = (short) keys[i];
+                }
+            }
+            offsets[numRows] = n;
+            return new LabelStore(lmIds, rowEdges, offsets, lms, dists, wideDists);
+        }
+    }
+
+}
@@ -0,0 +1,395 @@
+package eu.centai.hypeq.oracle.structures;
+
+import com.google.common.collect.Maps;
+import eu.centai.hypeq.utils.ColumnWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Binary oracle format that can be memory-mapped and queried in place.
+ * The file starts with a header (magic number, version, number of s-oracles,
+ * number of sections) followed by a section table storing offset and length
+ * of the section of each s. Each section stores the label columns of the
+ * s-oracle, the sizes of the s-ccs, and the id of the s-cc including each
+ * hyperedge (-1 if none). All the values are little-endian, and each column
+ * starts at a multiple of 8 bytes. Each section is mapped in a single buffer,
+ * so it cannot exceed 2 GB.
+ *
+ * @author giulia
+ */
+public class OracleFile {
+
+    private static final int MAGIC = 0x48595044;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+    private static final int SECTION_HEADER_SIZE = 32;
+    // sections are mapped in a single buffer, with int offsets
+    private static final long MAX_SECTION_SIZE = Integer.MAX_VALUE & ~7;
+    // section flags
+    private static final int WIDE_DISTANCES = 1;
+    private static final int HAS_MEMBERSHIPS = 2;
+    private static final int HAS_CCS = 4;
+
+    private final FileChannel channel;
+    private final int numOracles;
+    private final long[] sectionOffsets;
+    private final long[] sectionLengths;
+
+    private OracleFile(FileChannel channel, int numOracles, long[] sectionOffsets, long[] sectionLengths) {
+        this.channel = channel;
+        this.numOracles = numOracles;
+        this.sectionOffsets = sectionOffsets;
+        this.sectionLengths = sectionLengths;
+    }
+
+    /**
+     * Write the oracle in the mappable format.
+     *
+     * @param oracle distance oracle
+     * @param path output file
+     * @throws IOException
+     */
+    public static void write(DistanceOracle oracle, String path) throws IOException {
+        IntBuffer[] memberships = oracle.getCCsMembershipArrays();
+        Map<Integer, int[]> ccsSizes = oracle.getCCsSizes();
+        int numOracles = oracle.getNumSOracles();
+        int numSections = Math.max(numOracles, memberships.length);
+        for (int s : ccsSizes.keySet()) {
+            numSections = Math.max(numSections, s);
+        }
+        try (FileChannel out = FileChannel.open(Paths.get(path),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ColumnWriter writer = new ColumnWriter(out);
+            ByteBuffer header = order(ByteBuffer.allocate(HEADER_SIZE + ENTRY_SIZE * numSections));
+            writer.write(header);
+            long[] offsets = new long[numSections];
+            long[] lengths = new long[numSections];
+            for (int s = 1; s <= numSections; s++) {
+                offsets[s-1] = writer.position();
+                LabelStore labels = s <= numOracles ? oracle.getOracle(s).getLabelStore() : LabelStore.empty();
+                int numLandmarks = s <= numOracles ? oracle.getOracle(s).getNumLandmarks() : 0;
+                int[] sizes = ccsSizes.get(s);
+                IntBuffer memb = s <= memberships.length ? memberships[s-1] : null;
+                int flags = (labels.hasWideDistances() ? WIDE_DISTANCES : 0)
+                        | (memb != null ? HAS_MEMBERSHIPS : 0)
+                        | (sizes != null ? HAS_CCS : 0);
+                long length = getSectionLength(labels.getNumLandmarks(), labels.getNumRows(), labels.size(),
+                        labels.hasWideDistances(), sizes != null ? sizes.length : 0, memb != null ? memb.limit() : 0);
+                if (length > MAX_SECTION_SIZE) {
+                    throw new IOException("the section of s=" + s + " would take " + length 
+                            + " bytes, more than the " + MAX_SECTION_SIZE + " bytes that can be mapped.");
+                }
+                ByteBuffer sectionHeader = order(ByteBuffer.allocate(SECTION_HEADER_SIZE));
+                sectionHeader.putInt(numLandmarks)
+                        .putInt(labels.getNumLandmarks())
+                        .putInt(labels.getNumRows())
+                        .putInt(labels.size())
+                        .putInt(flags)
+                        .putInt(sizes != null ? sizes.length : 0)
+                        .putInt(memb != null ? memb.limit() : 0)
+                        .putInt(0);
+                sectionHeader.flip();
+                writer.write(sectionHeader);
+                writer.writeInts(labels.getLandmarkIds());
+                writer.writeInts(labels.getEdges());
+                writer.writeInts(labels.getOffsets());
+                writer.writeShorts(labels.getLandmarkColumn());
+                if (labels.hasWideDistances()) {
+                    writer.writeShorts(labels.getWideDistanceColumn());
+                } else {
+                    writer.writeBytes(labels.getDistanceColumn());
+                }
+                writer.writeInts(IntBuffer.wrap(sizes != null ? sizes : new int[0]));
+                writer.writeInts(memb != null ? memb : IntBuffer.wrap(new int[0]));
+                lengths[s-1] = writer.position() - offsets[s-1];
+            }
+            writer.flush();
+            // fill in the header
+            header.clear();
+            header.putInt(MAGIC).putInt(VERSION).putInt(numOracles).putInt(numSections);
+            for (int s = 0; s < numSections; s++) {
+                header.putLong(offsets[s]).putLong(lengths[s]);
+            }
+            header.flip();
+            out.position(0);
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+        }
+    }
+
+    /**
+     * Open a file written by {@link #write}, reading only its header.
+     *
+     * @param path oracle file
+     * @return handle to the oracle file
+     * @throws IOException if the file cannot be read, or its header is not
+     * valid
+     */
+    public static OracleFile open(String path) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(path + " is not a mappable oracle file.");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            order(header);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(path + " is not a mappable oracle file.");
+            }
+            int numOracles = header.getInt(8);
+            int numSections = header.getInt(12);
+            if (numSections < 0 || numOracles < 0 || numOracles > numSections
+                    || HEADER_SIZE + (long) ENTRY_SIZE * numSections > size) {
+                throw new IOException(path + " has an invalid header.");
+            }
+            ByteBuffer table = order(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, ENTRY_SIZE * numSections));
+            long[] offsets = new long[numSections];
+            long[] lengths = new long[numSections];
+            for (int s = 0; s < numSections; s++) {
+                offsets[s] = table.getLong(s * ENTRY_SIZE);
+                lengths[s] = table.getLong(s * ENTRY_SIZE + 8);
+                if (offsets[s] < 0 || lengths[s] < 0 || offsets[s] > size - lengths[s]) {
+                    throw new IOException(path + " has an invalid section table.");
+                }
+            }
+            return new OracleFile(channel, numOracles, offsets, lengths);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Map the whole oracle file; labels and memberships are read in place.
+     *
+     * @param path oracle file
+     * @return distance oracle backed by the file
+     * @throws IOException
+     */
+    public static DistanceOracle map(String path) throws IOException {
+        return map(path, false, 0);
+    }
+
+    /**
+     * Map the oracle file; labels and memberships are read in place.
+     * If lazy, each s-distance oracle is created only when it is accessed
+     * for the first time, from its section mapped here. As mapped sections
+     * remain valid, the file is closed in both cases.
+     *
+     * @param path oracle file
+     * @param lazy whether the s-distance oracles should be created on first access
+     * @param maxLoaded max number of s-distance oracles in memory (0 for no limit)
+     * @return distance oracle backed by the file
+     * @throws IOException
+     */
+    public static DistanceOracle map(String path, boolean lazy, int maxLoaded) throws IOException {
+        OracleFile file = open(path);
+        DistanceOracle oracle = new DistanceOracle();
+        SDistanceOracle[] oracles = new SDistanceOracle[file.getNumOracles()];
+        Map<Integer, int[]> ccsSizes = Maps.newHashMap();
+        IntBuffer[] memberships = new IntBuffer[file.getNumSections()];
+        Section[] sections = new Section[file.getNumSections()];
+        try {
+            for (int s = 1; s <= file.getNumSections(); s++) {
+                Section section = file.mapSection(s);
+                sections[s-1] = section;
+                if (s <= oracles.length && !lazy) {
+                    oracles[s-1] = section.getOracle();
+                }
+                if (section.getCCsSizes() != null) {
+                    ccsSizes.put(s, section.getCCsSizes());
+                }
+                memberships[s-1] = section.getMemberships();
+            }
+        } finally {
+            file.close();
+        }
+        if (lazy) {
+            int[] numLandmarks = new int[oracles.length];
+            int[] oracleSizes = new int[oracles.length];
+            for (int s = 1; s <= oracles.length; s++) {
+                numLandmarks[s-1] = sections[s-1].getNumLandmarks();
+                oracleSizes[s-1] = sections[s-1].getOracleSize();
+            }
+            oracle.setSOracleLoader(oracles.length, s -> sections[s-1].getOracle(), maxLoaded, 
+                    numLandmarks, oracleSizes);
+        } else {
+            oracle.setSOracles(oracles);
+        }
+        oracle.setCCsSizes(ccsSizes);
+        oracle.setCCsMemberships(memberships);
+        return oracle;
+    }
+
+    /**
+     *
+     * @return number of s-oracles stored in the file
+     */
+    public int getNumOracles() {
+        return numOracles;
+    }
+
+    /**
+     *
+     * @return number of sections (one per s) stored in the file
+     */
+    public int getNumSections() {
+        return sectionOffsets.length;
+    }
+
+    /**
+     * Close the file; mapped sections remain valid.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @return content of the section of s, backed by the file
+     * @throws IOException
+     */
+    public Section mapSection(int s) throws IOException {
+        if (sectionLengths[s-1] < SECTION_HEADER_SIZE || sectionLengths[s-1] > MAX_SECTION_SIZE) {
+            throw new IOException("the section of s=" + s + " has an invalid length " + sectionLengths[s-1] + ".");
+        }
+        ByteBuffer buf = order(channel.map(FileChannel.MapMode.READ_ONLY, sectionOffsets[s-1], sectionLengths[s-1]));
+        int numLandmarks = buf.getInt(0);
+        int numLandmarkIds = buf.getInt(4);
+        int numRows = buf.getInt(8);
+        int numEntries = buf.getInt(12);
+        int flags = buf.getInt(16);
+        int numCCs = buf.getInt(20);
+        int numMemb = buf.getInt(24);
+        // the columns must fit in the section, so that int offsets cannot overflow
+        if (numLandmarkIds < 0 || numRows < 0 || numEntries < 0 || numCCs < 0 || numMemb < 0
+                || getSectionLength(numLandmarkIds, numRows, numEntries, 
+                        (flags & WIDE_DISTANCES) != 0, numCCs, numMemb) > sectionLengths[s-1]) {
+            throw new IOException("the section of s=" + s + " is corrupted.");
+        }
+        int pos = SECTION_HEADER_SIZE;
+        IntBuffer landmarks = slice(buf, pos, numLandmarkIds * 4).asIntBuffer();
+        pos = align(pos + numLandmarkIds * 4);
+        IntBuffer edges = slice(buf, pos, numRows * 4).asIntBuffer();
+        pos = align(pos + numRows * 4);
+        IntBuffer offsets = slice(buf, pos, (numRows + 1) * 4).asIntBuffer();
+        pos = align(pos + (numRows + 1) * 4);
+        ShortBuffer lms = slice(buf, pos, numEntries * 2).asShortBuffer();
+        pos = align(pos + numEntries * 2);
+        LabelStore labels;
+        if ((flags & WIDE_DISTANCES) != 0) {
+            labels = new LabelStore(landmarks, edges, offsets, lms, null, slice(buf, pos, numEntries * 2).asShortBuffer());
+            pos = align(pos + numEntries * 2);
+        } else {
+            labels = new LabelStore(landmarks, edges, offsets, lms, slice(buf, pos, numEntries), null);
+            pos = align(pos + numEntries);
+        }
+        int[] sizes = null;
+        if ((flags & HAS_CCS) != 0) {
+            sizes = new int[numCCs];
+            slice(buf, pos, numCCs * 4).asIntBuffer().get(sizes);
+        }
+        pos = align(pos + numCCs * 4);
+        IntBuffer memb = null;
+        if ((flags & HAS_MEMBERSHIPS) != 0) {
+            memb = slice(buf, pos, numMemb * 4).asIntBuffer();
+        }
+        return new Section(numLandmarks, labels, sizes, memb);
+    }
+
+    /**
+     * Content of the section of a given s.
+     */
+    public static class Section {
+
+        private final int numLandmarks;
+        private final LabelStore labels;
+        private final int[] ccsSizes;
+        private final IntBuffer memberships;
+
+        Section(int numLandmarks, LabelStore labels, int[] ccsSizes, IntBuffer memberships) {
+            this.numLandmarks = numLandmarks;
+            this.labels = labels;
+            this.ccsSizes = ccsSizes;
+            this.memberships = memberships;
+        }
+
+        public SDistanceOracle getOracle() {
+            SDistanceOracle oracle = new SDistanceOracle();
+            oracle.setNumLandmarks(numLandmarks);
+            oracle.setLabelStore(labels);
+            return oracle;
+        }
+
+        public int getNumLandmarks() {
+            return numLandmarks;
+        }
+
+        public int getOracleSize() {
+            return labels.size();
+        }
+
+        public int[] getCCsSizes() {
+            return ccsSizes;
+        }
+
+        public IntBuffer getMemberships() {
+            return memberships;
+        }
+    }
+
+    private static <B extends ByteBuffer> B order(B buf) {
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        return buf;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buf, int pos, int length) {
+        ByteBuffer dup = buf.duplicate();
+        dup.position(pos);
+        dup.limit(pos + length);
+        return order(dup.slice());
+    }
+
+    private static int align(int pos) {
+        return (pos + 7) & ~7;
+    }
+
+    /**
+     *
+     * @param numLandmarkIds number of landmarks in the label store
+     * @param numRows number of hyperedges with a label
+     * @param numEntries number of label entries
+     * @param wide whether distances are stored as shorts
+     * @param numCCs number of s-ccs
+     * @param numMemb number of hyperedges with a membership
+     * @return number of bytes of a section with these columns
+     */
+    private static long getSectionLength(long numLandmarkIds, long numRows, long numEntries,
+            boolean wide, long numCCs, long numMemb) {
+        long pos = SECTION_HEADER_SIZE;
+        pos = ColumnWriter.align(pos + numLandmarkIds * 4);
+        pos = ColumnWriter.align(pos + numRows * 4);
+        pos = ColumnWriter.align(pos + (numRows + 1) * 4);
+        pos = ColumnWriter.align(pos + numEntries * 2);
+        pos = ColumnWriter.align(pos + numEntries * (wide ? 2 : 1));
+        pos = ColumnWriter.align(pos + numCCs * 4);
+        return ColumnWriter.align(pos + numMemb * 4);
+    }
+
+}
@@ -4,13 +4,17 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.esotericsoftware.kryo.serializers.MapSerializer;
 import com.esotericsoftware.kryo.serializers.DefaultArraySerializers.IntArraySerializer;
 import com.google.common.collect.Maps;
+import java.nio.IntBuffer;
 import java.util.Map;
 
 public class OracleSerializer extends Serializer<DistanceOracle> {
 
+    // written before the oracle, to reject files written in another format
+    public static final int MAGIC = 0x48594F52;
+    public static final int VERSION = 2;
+
     @Override
     public void write(Kryo kryo, Output output, DistanceOracle oracle) {
         SDistanceOracle[] oracles = oracle.getSOracles();
@@ -19,7 +23,7 @@ public class OracleSerializer extends Serializer<DistanceOracle> {
             kryo.writeObject(output, so);
         }
         writeComponentSizes(output, kryo, oracle.getCCsSizes());
-        writeMemberships(output, kryo, oracle.getCCsMemberships());
+        writeMemberships(output, kryo, oracle.getCCsMembershipArrays());
     }
 
     @Override
@@ -45,15 +49,19 @@ public class OracleSerializer extends Serializer<DistanceOracle> {
         });
     }
     
-    private void writeMemberships(Output out, Kryo kryo, Map<Integer, Map<Integer, Integer>> memb) {
-        MapSerializer ser = new MapSerializer();
-        ser.setKeyClass(Integer.class);
-        ser.setValueClass(Integer.class);
-        out.writeInt(memb.size());
-        memb.entrySet().forEach(entry -> {
-            out.writeInt(entry.getKey());
-            kryo.writeObject(out, entry.getValue(), ser);
-        });
+    private void writeMemberships(Output out, Kryo kryo, IntBuffer[] memb) {
+        IntArraySerializer ser = new IntArraySerializer();
+        out.writeInt(memb.length);
+        for (IntBuffer m : memb) {
+            out.writeBoolean(m != null);
+            if (m != null) {
+                int[] tmp = new int[m.limit()];
+                for (int e = 0; e < tmp.length; e++) {
+                    tmp[e] = m.get(e);
+                }
+                ser.write(kryo, out, tmp);
+            }
+        }
     }
     
     private Map<Integer, int[]> readComponentSizes(Input input, Kryo kryo) {
@@ -68,15 +76,13 @@ public class OracleSerializer extends Serializer<DistanceOracle> {
         return ccs;
     }
     
-    private Map<Integer, Map<Integer, Integer>> readMemberships(Input input, Kryo kryo) {
-        MapSerializer ser = new MapSerializer();
-        ser.setKeyClass(Integer.class);
-        ser.setValueClass(Integer.class);
-        int numS = input.readInt();
-        Map<Integer, Map<Integer, Integer>> memberships = Maps.newHashMap();
-        for (int j = 0; j < numS; j++) {
-            int key = input.readInt();
-            memberships.put(key, (Map<Integer, Integer>) kryo.readObject(input, java.util.HashMap.class, ser));
+    private IntBuffer[] readMemberships(Input input, Kryo kryo) {
+        IntArraySerializer ser = new IntArraySerializer();
+        IntBuffer[] memberships = new IntBuffer[input.readInt()];
+        for (int j = 0; j < memberships.length; j++) {
+            if (input.readBoolean()) {
+                memberships[j] = IntBuffer.wrap(ser.read(kryo, input, int[].class));
+            }
         }
         return memberships;
     }
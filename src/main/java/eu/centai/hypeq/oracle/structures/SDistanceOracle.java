@@ -1,10 +1,14 @@
 package eu.centai.hypeq.oracle.structures;
 
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import eu.centai.hypeq.structures.HyperGraph;
+import eu.centai.hypeq.structures.search.MultiSourceBFS;
+import eu.centai.hypeq.utils.Settings;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -13,30 +17,55 @@ import java.util.Set;
 public class SDistanceOracle {
     
     private Set<Integer> landmarks;
-    private Map<Integer, Map<Integer, Integer>> labels; // s-distances from hyperedges to landmarks
+    private LabelStore labels; // s-distances from hyperedges to landmarks
     private int numLandmarks;
     
     public SDistanceOracle() {
         this.landmarks = Sets.newHashSet();
-        this.labels = Maps.newHashMap();
+        this.labels = LabelStore.empty();
     }
     
     /**
      * Find all the s-distances from a set of landmarks to the reachable hyperedges.
+     * Landmarks are split in batches of at most 64, which are processed in 
+     * parallel by a multi-source BFS; each batch stores its distances in a 
+     * separate shard, and the shards are merged at the end.
      * 
      * @param graph hypergraph
      * @param lands set of landmarks
      * @param s min overlap size
      */
     public void findDistances(HyperGraph graph, Set<Integer> lands, int s) {
-        for (int l : lands) {
-            Map<Integer, Integer> dist = graph.findDistancesFrom(l, s);
-            dist.entrySet().stream().forEach(e -> {
-                Map<Integer, Integer> tmpDist = labels.getOrDefault(e.getKey(), Maps.newHashMap());
-                tmpDist.put(l, e.getValue());
-                labels.put(e.getKey(), tmpDist);
-            });
+        int[] sources = lands.stream().mapToInt(l -> l).toArray();
+        // use smaller batches when there are not enough landmarks to keep all the threads busy
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        int batchSize = Math.max(1, Math.min(MultiSourceBFS.BATCH_SIZE, (sources.length + threads - 1) / threads));
+        int numBatches = (sources.length + batchSize - 1) / batchSize;
+        IntArrayList[] shards = new IntArrayList[numBatches];
+        IntStream.range(0, numBatches).parallel().forEach(b -> {
+            int from = b * batchSize;
+            int to = Math.min(sources.length, from + batchSize);
+            // triples (hyperedge, landmark, distance)
+            IntArrayList shard = new IntArrayList();
+            MultiSourceBFS.local(graph.getNumEdges())
+                    .run(graph.getAdjacency(), sources, from, to, s, s <= Settings.directionOptimizingMaxS, (e, l, d) -> {
+                        shard.add(e);
+                        shard.add(sources[from + l]);
+                        shard.add(d);
+                    });
+            shards[b] = shard;
+        });
+        // merge the shards with the labels already stored
+        LabelStore.Builder builder = new LabelStore.Builder();
+        builder.addAll(labels);
+        for (int b = 0; b < numBatches; b++) {
+            IntArrayList shard = shards[b];
+            for (int i = 0; i < shard.size(); i += 3) {
+                builder.add(shard.getInt(i), shard.getInt(i + 1), shard.getInt(i + 2));
+            }
+            shards[b] = null;
         }
+        labels = builder.build();
     }
     
     /**
@@ -82,7 +111,7 @@ public class SDistanceOracle {
      * @return s-distances from landmarks to hyperedges
      */
     public Map<Integer, Map<Integer, Integer>> getLabels() {
-        return labels;
+        return labels.toMap();
     }
     
     /**
@@ -90,7 +119,29 @@ public class SDistanceOracle {
      * @param labels s-distances from landmarks to hyperedges
      */
     public void setLabels(Map<Integer, Map<Integer, Integer>> labels) {
+        LabelStore.Builder builder = new LabelStore.Builder();
+        builder.addAll(labels);
+        setLabelStore(builder.build());
+    }
+    
+    /**
+     * 
+     * @return columnar store of the s-distances from landmarks to hyperedges
+     */
+    public LabelStore getLabelStore() {
+        return labels;
+    }
+    
+    /**
+     * Method used when reading the oracle from disk.
+     * 
+     * @param labels columnar store of the s-distances from landmarks to hyperedges
+     */
+    public void setLabelStore(LabelStore labels) {
         this.labels = labels;
+        for (int i = 0; i < labels.getNumLandmarks(); i++) {
+            this.landmarks.add(labels.getLandmark(i));
+        }
     }
     
     /**
@@ -99,7 +150,7 @@ public class SDistanceOracle {
      * @return s-distances from e to hyperedges reachable from e 
      */
     public Map<Integer, Integer> getLabel(int e) {
-        return labels.getOrDefault(e, Maps.newHashMap());
+        return labels.getLabel(e);
     }
     
     /**
@@ -108,7 +159,7 @@ public class SDistanceOracle {
      * @return true if the oracle stores s-distances from e; false otherwise
      */
     public boolean hasLabel(int e) {
-        return labels.containsKey(e);
+        return labels.getRow(e) >= 0;
     }
     
     /**
@@ -116,7 +167,7 @@ public class SDistanceOracle {
      * @return number of distance pairs stored in this oracle.
      */
     public int getOracleSize() {
-        return labels.values().stream().mapToInt(m -> m.size()).sum();
+        return labels.size();
     }
     
 }
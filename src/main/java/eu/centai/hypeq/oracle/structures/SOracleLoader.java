@@ -0,0 +1,20 @@
+package eu.centai.hypeq.oracle.structures;
+
+import java.io.IOException;
+
+/**
+ * Loads the s-distance oracle of a given s, e.g., from disk.
+ *
+ * @author giulia
+ */
+public interface SOracleLoader {
+
+    /**
+     *
+     * @param s min overlap size
+     * @return s-distance oracle
+     * @throws IOException
+     */
+    SDistanceOracle load(int s) throws IOException;
+
+}
@@ -4,21 +4,69 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 public class SOracleSerializer extends Serializer<SDistanceOracle> {
 
+    // written before the s-distance oracle, to reject files written in another
+    // format, followed by its number of landmarks and of distance pairs
+    public static final int MAGIC = 0x48595352;
+    public static final int VERSION = 3;
+
     @Override
     public void write(Kryo kryo, Output output, SDistanceOracle oracle) {
         output.writeInt(oracle.getNumLandmarks());
-        kryo.writeObject(output, oracle.getLabels());
+        LabelStore labels = oracle.getLabelStore();
+        writeInts(output, labels.getLandmarkIds());
+        writeInts(output, labels.getEdges());
+        writeInts(output, labels.getOffsets());
+        output.writeInt(labels.size());
+        ShortBuffer lms = labels.getLandmarkColumn();
+        for (int i = 0; i < labels.size(); i++) {
+            output.writeShort(lms.get(i));
+        }
+        // distances are stored as bytes when possible
+        output.writeBoolean(labels.hasWideDistances());
+        if (labels.hasWideDistances()) {
+            ShortBuffer dists = labels.getWideDistanceColumn();
+            for (int i = 0; i < labels.size(); i++) {
+                output.writeShort(dists.get(i));
+            }
+        } else {
+            ByteBuffer dists = labels.getDistanceColumn();
+            for (int i = 0; i < labels.size(); i++) {
+                output.writeByte(dists.get(i));
+            }
+        }
     }
 
     @Override
     public SDistanceOracle read(Kryo kryo, Input input, Class<? extends SDistanceOracle> type) {
         SDistanceOracle o = new SDistanceOracle();
         o.setNumLandmarks(input.readInt());
-        o.setLabels((Map<Integer, Map<Integer, Integer>>) kryo.readObject(input, java.util.HashMap.class));
+        int[] landmarks = readInts(input);
+        int[] edges = readInts(input);
+        int[] offsets = readInts(input);
+        int size = input.readInt();
+        short[] lms = input.readShorts(size);
+        if (input.readBoolean()) {
+            o.setLabelStore(new LabelStore(landmarks, edges, offsets, lms, null, input.readShorts(size)));
+        } else {
+            o.setLabelStore(new LabelStore(landmarks, edges, offsets, lms, input.readBytes(size), null));
+        }
         return o;
     }
+    
+    private void writeInts(Output output, IntBuffer buffer) {
+        output.writeInt(buffer.limit());
+        for (int i = 0; i < buffer.limit(); i++) {
+            output.writeInt(buffer.get(i));
+        }
+    }
+    
+    private int[] readInts(Input input) {
+        return input.readInts(input.readInt());
+    }
 }
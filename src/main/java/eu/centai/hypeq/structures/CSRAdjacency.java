@@ -0,0 +1,391 @@
+package eu.centai.hypeq.structures;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed-sparse-row representation of the overlaps between hyperedges.
+ * The neighbours of hyperedge e are stored in targets[offsets[e], offsets[e+1]),
+ * and overlaps[i] is the size of the overlap between e and targets[i],
+ * saturated at Short.MAX_VALUE.
+ * Each segment is sorted by decreasing overlap, so that the s-neighbours of e
+ * are the prefix targets[offsets[e], getSEnd(e, s)).
+ *
+ * @author giulia
+ */
+public class CSRAdjacency {
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final short[] overlaps;
+    // number of entries of the s-line graph, indexed by s up to the max 
+    // overlap; -1 if not computed yet
+    private final long[] numSEntries;
+
+    public CSRAdjacency(int[] offsets, int[] targets, short[] overlaps) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.overlaps = overlaps;
+        int maxOverlap = 0;
+        for (int e = 0; e < offsets.length - 1; e++) {
+            if (offsets[e] < offsets[e + 1]) {
+                // the first neighbour has the largest overlap
+                maxOverlap = Math.max(maxOverlap, overlaps[offsets[e]]);
+            }
+        }
+        this.numSEntries = new long[maxOverlap + 1];
+        Arrays.fill(numSEntries, -1);
+    }
+
+    /**
+     * Build the CSR structure from the neighbour maps stored in the hyperedges.
+     * The hyperedge ids are expected to coincide with their position in the list.
+     * Neighbours are sorted by decreasing overlap, and by increasing id.
+     *
+     * @param hyperedges hyperedges with neighbour data
+     * @return CSR adjacency of the hyperedges
+     */
+    public static CSRAdjacency fromNeighbourData(List<HyperEdge> hyperedges) {
+        int numEdges = hyperedges.size();
+        int[] offsets = new int[numEdges + 1];
+        for (int e = 0; e < numEdges; e++) {
+            offsets[e + 1] = offsets[e] + hyperedges.get(e).getNeighbourData().size();
+        }
+        int[] targets = new int[offsets[numEdges]];
+        short[] overlaps = new short[offsets[numEdges]];
+        IntStream.range(0, numEdges).parallel().forEach(e -> {
+            int pos = offsets[e];
+            for (Map.Entry<Integer, Integer> n : hyperedges.get(e).getNeighbourData().entrySet()) {
+                targets[pos] = n.getKey();
+                overlaps[pos] = saturate(n.getValue());
+                pos++;
+            }
+            sortByOverlap(targets, overlaps, offsets[e], offsets[e + 1]);
+        });
+        return new CSRAdjacency(offsets, targets, overlaps);
+    }
+
+    /**
+     * Build the CSR structure by counting the overlaps of each hyperedge with
+     * all the others, using the vertex-to-hyperedge incidence.
+     * The hyperedges are split into ranges with about the same number of
+     * incidences to scan, and the ranges are processed in parallel; each
+     * worker counts the overlaps in a dense array, and resets only the
+     * entries it touched before moving to the next hyperedge.
+     * Neighbours are sorted by decreasing overlap, and by increasing id.
+     *
+     * @param hyperedges hyperedges, whose ids coincide with their position in the list
+     * @param incidence incidence between the vertices and the hyperedges
+     * @return CSR adjacency of the hyperedges
+     */
+    public static CSRAdjacency fromIncidence(List<HyperEdge> hyperedges, VertexIncidence incidence) {
+        int numEdges = hyperedges.size();
+        // rows of the vertices of each hyperedge
+        int[][] rows = new int[numEdges][];
+        long[] work = new long[numEdges + 1];
+        IntStream.range(0, numEdges).parallel().forEach(e -> {
+            int[] vertices = hyperedges.get(e).getSortedVertices();
+            rows[e] = new int[vertices.length];
+            long scanned = 0;
+            for (int i = 0; i < vertices.length; i++) {
+                rows[e][i] = incidence.getRow(vertices[i]);
+                scanned += incidence.getEnd(rows[e][i]) - incidence.getStart(rows[e][i]);
+            }
+            work[e + 1] = scanned;
+        });
+        for (int e = 0; e < numEdges; e++) {
+            work[e + 1] += work[e];
+        }
+        int numChunks = (int) Math.max(1, Math.min(numEdges, 4L * ForkJoinPool.getCommonPoolParallelism()));
+        // first hyperedge of each chunk
+        int[] starts = new int[numChunks + 1];
+        for (int c = 1; c < numChunks; c++) {
+            long target = work[numEdges] * c / numChunks;
+            int e = Arrays.binarySearch(work, target);
+            starts[c] = Math.max(starts[c - 1], e < 0 ? -e - 1 : e);
+        }
+        starts[numChunks] = numEdges;
+        // counters released by the chunks already processed
+        ConcurrentLinkedQueue<int[]> counters = new ConcurrentLinkedQueue<>();
+        int[] degrees = new int[numEdges];
+        // sorted neighbours of the hyperedges in each chunk, with their overlaps
+        IntArrayList[] chunkTargets = new IntArrayList[numChunks];
+        ShortArrayList[] chunkOverlaps = new ShortArrayList[numChunks];
+        IntStream.range(0, numChunks).parallel().forEach(c -> {
+            int[] counts = counters.poll();
+            if (counts == null) {
+                counts = new int[numEdges];
+            }
+            IntArrayList touched = new IntArrayList();
+            IntArrayList ngbs = new IntArrayList();
+            ShortArrayList ovs = new ShortArrayList();
+            for (int e = starts[c]; e < starts[c + 1]; e++) {
+                for (int r : rows[e]) {
+                    for (int i = incidence.getStart(r); i < incidence.getEnd(r); i++) {
+                        int n = incidence.getHyperEdge(i);
+                        if (n != e && counts[n]++ == 0) {
+                            touched.add(n);
+                        }
+                    }
+                }
+                int first = ngbs.size();
+                for (int t = 0; t < touched.size(); t++) {
+                    int n = touched.getInt(t);
+                    ngbs.add(n);
+                    ovs.add(saturate(counts[n]));
+                    counts[n] = 0;
+                }
+                sortByOverlap(ngbs.elements(), ovs.elements(), first, ngbs.size());
+                degrees[e] = touched.size();
+                touched.clear();
+            }
+            chunkTargets[c] = ngbs;
+            chunkOverlaps[c] = ovs;
+            counters.add(counts);
+        });
+        int[] offsets = new int[numEdges + 1];
+        for (int e = 0; e < numEdges; e++) {
+            offsets[e + 1] = offsets[e] + degrees[e];
+        }
+        int[] targets = new int[offsets[numEdges]];
+        short[] overlaps = new short[offsets[numEdges]];
+        IntStream.range(0, numChunks).parallel().forEach(c -> {
+            int pos = offsets[starts[c]];
+            chunkTargets[c].getElements(0, targets, pos, chunkTargets[c].size());
+            chunkOverlaps[c].getElements(0, overlaps, pos, chunkOverlaps[c].size());
+            chunkTargets[c] = null;
+            chunkOverlaps[c] = null;
+        });
+        return new CSRAdjacency(offsets, targets, overlaps);
+    }
+
+    /**
+     * Build the CSR structure from a list of directed entries.
+     * Neighbours are sorted by decreasing overlap, and by increasing id.
+     *
+     * @param numEdges number of hyperedges
+     * @param entries pairs (e, n) packed with e in the high bits, each
+     * stating that n is a neighbour of e
+     * @param values overlap of each entry
+     * @return CSR adjacency of the hyperedges
+     */
+    public static CSRAdjacency fromEntries(int numEdges, long[] entries, int[] values) {
+        int[] offsets = new int[numEdges + 1];
+        for (long entry : entries) {
+            offsets[(int) (entry >>> 32) + 1]++;
+        }
+        for (int e = 0; e < numEdges; e++) {
+            offsets[e + 1] += offsets[e];
+        }
+        int[] targets = new int[entries.length];
+        short[] overlaps = new short[entries.length];
+        int[] pos = Arrays.copyOf(offsets, numEdges);
+        for (int i = 0; i < entries.length; i++) {
+            int p = pos[(int) (entries[i] >>> 32)]++;
+            targets[p] = (int) entries[i];
+            overlaps[p] = saturate(values[i]);
+        }
+        IntStream.range(0, numEdges).parallel()
+                .forEach(e -> sortByOverlap(targets, overlaps, offsets[e], offsets[e + 1]));
+        return new CSRAdjacency(offsets, targets, overlaps);
+    }
+
+    /**
+     * Sort the neighbours in [from, to) by decreasing overlap, and by 
+     * increasing id.
+     *
+     * @param targets neighbours
+     * @param overlaps overlap with each neighbour
+     * @param from first position of the segment
+     * @param to position after the last position of the segment
+     */
+    private static void sortByOverlap(int[] targets, short[] overlaps, int from, int to) {
+        // sort key: complement of the overlap in the high bits, id in the low bits
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            keys[i - from] = ((long) (Short.MAX_VALUE - overlaps[i]) << 32) | targets[i];
+        }
+        Arrays.sort(keys);
+        for (int i = from; i < to; i++) {
+            targets[i] = (int) keys[i - from];
+            overlaps[i] = (short) (Short.MAX_VALUE - (int) (keys[i - from] >>> 32));
+        }
+    }
+
+    /**
+     *
+     * @param overlap overlap size
+     * @return overlap size capped to the range of a short
+     */
+    public static short saturate(int overlap) {
+        return (short) Math.min(overlap, Short.MAX_VALUE);
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return number of hyperedges adjacent to e
+     */
+    public int getDegree(int e) {
+        return offsets[e + 1] - offsets[e];
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @param s min overlap size
+     * @return number of hyperedges s-adjacent to e
+     */
+    public int getNumSNeighbours(int e, int s) {
+        return getSEnd(e, s) - offsets[e];
+    }
+
+    /**
+     *
+     * @param s min overlap size
+     * @return number of (directed) entries of the s-line graph
+     */
+    public long getNumSEntries(int s) {
+        if (s <= 1) {
+            return targets.length;
+        }
+        if (s >= numSEntries.length) {
+            return 0;
+        }
+        // racy but idempotent fill
+        if (numSEntries[s] == -1) {
+            numSEntries[s] = IntStream.range(0, getNumEdges())
+                    .mapToLong(e -> getNumSNeighbours(e, s))
+                    .sum();
+        }
+        return numSEntries[s];
+    }
+
+    /**
+     * The s-neighbours of e are stored in targets[getStart(e), getSEnd(e, s)).
+     *
+     * @param e hyperedge id
+     * @param s min overlap size
+     * @return position after the last s-neighbour of e in the target array
+     */
+    public int getSEnd(int e, int s) {
+        int lo = offsets[e];
+        int hi = offsets[e + 1];
+        if (s <= 1 || lo == hi) {
+            return hi;
+        }
+        // first position with overlap lower than s
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (overlaps[mid] >= s) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return ids of all the hyperedges adjacent to e
+     */
+    public IntOpenHashSet getNeighbours(int e) {
+        IntOpenHashSet neighbours = new IntOpenHashSet(getDegree(e));
+        for (int i = offsets[e]; i < offsets[e + 1]; i++) {
+            neighbours.add(targets[i]);
+        }
+        return neighbours;
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @param s min overlap size
+     * @return ids of all the hyperedges s-adjacent to e
+     */
+    public IntOpenHashSet getSNeighbours(int e, int s) {
+        int end = getSEnd(e, s);
+        IntOpenHashSet neighbours = new IntOpenHashSet(end - offsets[e]);
+        for (int i = offsets[e]; i < end; i++) {
+            neighbours.add(targets[i]);
+        }
+        return neighbours;
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return map with entries (hyperedge id, overlap size), for all the
+     * hyperedges adjacent to e
+     */
+    public Int2IntOpenHashMap getNeighbourData(int e) {
+        Int2IntOpenHashMap data = new Int2IntOpenHashMap(getDegree(e));
+        for (int i = offsets[e]; i < offsets[e + 1]; i++) {
+            data.put(targets[i], overlaps[i]);
+        }
+        return data;
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return position of the first neighbour of e in the target array
+     */
+    public int getStart(int e) {
+        return offsets[e];
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return position after the last neighbour of e in the target array
+     */
+    public int getEnd(int e) {
+        return offsets[e + 1];
+    }
+
+    /**
+     *
+     * @param i position in the target array
+     * @return id of the neighbour stored in position i
+     */
+    public int getTarget(int i) {
+        return targets[i];
+    }
+
+    /**
+     *
+     * @param i position in the target array
+     * @return overlap of the neighbour stored in position i
+     */
+    public int getOverlap(int i) {
+        return overlaps[i];
+    }
+
+    /**
+     *
+     * @return number of hyperedges in the structure
+     */
+    public int getNumEdges() {
+        return offsets.length - 1;
+    }
+
+    /**
+     *
+     * @return number of (directed) adjacency entries
+     */
+    public int getNumEntries() {
+        return targets.length;
+    }
+
+}
@@ -0,0 +1,86 @@
+package eu.centai.hypeq.structures;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only map from the dense vertex ids 0..V-1 to the set of hyperedges
+ * including each vertex, backed by a plain array, so that looking up a vertex
+ * does not require hashing. Vertices are iterated in increasing order of id.
+ *
+ * @author giulia
+ */
+public class DenseVertexMap extends AbstractMap<Integer, Set<Integer>> {
+
+    private final Set<Integer>[] memberships;
+
+    /**
+     *
+     * @param memberships hyperedges including each vertex, indexed by vertex id
+     */
+    public DenseVertexMap(Set<Integer>[] memberships) {
+        this.memberships = memberships;
+    }
+
+    /**
+     *
+     * @param v vertex id
+     * @return hyperedges including v, or null if v is not a vertex
+     */
+    public Set<Integer> get(int v) {
+        return v >= 0 && v < memberships.length ? memberships[v] : null;
+    }
+
+    @Override
+    public Set<Integer> get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return memberships.length;
+    }
+
+    @Override
+    public Set<Entry<Integer, Set<Integer>>> entrySet() {
+        return new AbstractSet<Entry<Integer, Set<Integer>>>() {
+
+            @Override
+            public Iterator<Entry<Integer, Set<Integer>>> iterator() {
+                return new Iterator<Entry<Integer, Set<Integer>>>() {
+
+                    private int v = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return v < memberships.length;
+                    }
+
+                    @Override
+                    public Entry<Integer, Set<Integer>> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<Integer, Set<Integer>> entry = new SimpleImmutableEntry<>(v, memberships[v]);
+                        v++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return memberships.length;
+            }
+        };
+    }
+
+}
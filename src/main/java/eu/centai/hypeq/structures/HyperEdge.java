@@ -2,6 +2,7 @@ package eu.centai.hypeq.structures;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -15,11 +16,19 @@ public class HyperEdge {
     
     private final int id;
     private final Set<Integer> vertices;
-    private final Map<Integer, Integer> neighbours;
+    // vertex ids, in increasing order
+    private final int[] sortedVertices;
+    private Map<Integer, Integer> neighbours;
     
     public HyperEdge(int id, Set<Integer> vertices) {
         this.id = id;
         this.vertices = vertices;
+        this.sortedVertices = new int[vertices.size()];
+        int i = 0;
+        for (int v : vertices) {
+            sortedVertices[i++] = v;
+        }
+        Arrays.sort(sortedVertices);
         this.neighbours = Maps.newHashMap();
     }
     
@@ -27,8 +36,16 @@ public class HyperEdge {
         return vertices;
     }
     
+    /**
+     * 
+     * @return vertex ids of this hyperedge, in increasing order
+     */
+    public int[] getSortedVertices() {
+        return sortedVertices;
+    }
+    
     public int getNumVertices() {
-        return this.vertices.size();
+        return sortedVertices.length;
     }
     
     /**
@@ -103,6 +120,14 @@ public class HyperEdge {
         neighbours.putAll(data);
     }
     
+    /**
+     * Release the neighbour data, once it has been moved to the CSR adjacency
+     * of the hypergraph.
+     */
+    public void clearNeighbourData() {
+        neighbours = Maps.newHashMap();
+    }
+    
     /**
      * 
      * @param n hyperedge id
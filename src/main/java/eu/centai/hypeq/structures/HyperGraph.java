@@ -1,29 +1,41 @@
 package eu.centai.hypeq.structures;
 
+import eu.centai.hypeq.structures.search.BFSEngine;
+import eu.centai.hypeq.structures.search.BidirectionalBFS;
 import eu.centai.hypeq.structures.search.Lattice;
-import eu.centai.hypeq.structures.search.Tree;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import eu.centai.hyped.cc.ConcurrentUnionFind;
 import eu.centai.hyped.cc.ConnectedComponents;
 import eu.centai.hyped.cc.WQUFPC;
 import eu.centai.hypeq.oracle.structures.DistanceOracle;
 import eu.centai.hypeq.oracle.structures.DistanceProfile;
+import eu.centai.hypeq.utils.Settings;
 import eu.centai.hypeq.utils.Utils;
+import eu.centai.hypeq.utils.VertexRemap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.javatuples.Pair;
@@ -36,50 +48,46 @@ import org.javatuples.Triplet;
 public class HyperGraph {
 
     private final List<HyperEdge> hyperedges;
-    // for each vertex v, set of hyperedges including v
-    private final Map<Integer, Set<Integer>> vertexMap;
+    // for each vertex v, hyperedges including v
+    private final VertexIncidence incidence;
+    // for each vertex v, set of hyperedges including v (materialized on demand)
+    private Map<Integer, Set<Integer>> vertexMap;
+    // hyperedge overlaps, available once the neighbours have been initialized
+    private CSRAdjacency adjacency;
     private int dimension;
 
     public HyperGraph(List<HyperEdge> edges, boolean initializeOverlaps) {
-        this.hyperedges = edges;
-        this.vertexMap = Maps.newHashMap();
-        initializeVertexMap();
+        this(edges, VertexIncidence.fromHyperEdges(edges), null);
         if (initializeOverlaps) {
             initializeNeighbours();
         }
     }
 
-    private void initializeVertexMap() {
-        hyperedges.stream().forEach(edge -> {
-            this.dimension = Math.max(dimension, edge.getNumVertices());
-            for (int v : edge.getVertices()) {
-                Set<Integer> memb = this.vertexMap.getOrDefault(v, Sets.newHashSet());
-                memb.add(edge.getId());
-                this.vertexMap.put(v, memb);
-            }
-        });
-        System.out.println("V=" + vertexMap.size() + 
+    /**
+     * Create the hypergraph from precomputed structures, e.g., loaded from a
+     * snapshot.
+     *
+     * @param edges hyperedges, whose ids coincide with their position in the list
+     * @param incidence incidence between the vertices and the hyperedges
+     * @param adjacency overlaps between all the hyperedges, or null if they
+     * have not been computed
+     */
+    public HyperGraph(List<HyperEdge> edges, VertexIncidence incidence, CSRAdjacency adjacency) {
+        this.hyperedges = edges;
+        this.incidence = incidence;
+        this.dimension = edges.stream().mapToInt(e -> e.getNumVertices()).max().orElse(0);
+        System.out.println("V=" + incidence.getNumVertices() + 
                 ", E=" + hyperedges.size() + 
                 ", d=" + dimension);
+        if (adjacency != null) {
+            this.adjacency = adjacency;
+        } else {
+            this.adjacency = new CSRAdjacency(new int[edges.size() + 1], new int[0], new short[0]);
+        }
     }
 
     private void initializeNeighbours() {
-        Map<Integer, List<Integer>> vIndex = Maps.newHashMap();
-
-        hyperedges.stream().forEach(edge -> {
-            Map<Integer, Integer> curr = findNeighbours(edge, vIndex);
-            // update neighbour info
-            edge.updateNeighbourData(curr);
-            curr.entrySet().stream().forEach(e -> {
-                hyperedges.get(e.getKey()).addNeighbour(edge.getId(), e.getValue());
-            });
-            // update dynamic index
-            for (int v : edge.getVertices()) {
-                List<Integer> tmpList = vIndex.getOrDefault(v, Lists.newArrayList());
-                tmpList.add(edge.getId());
-                vIndex.put(v, tmpList);
-            }
-        });
+        this.adjacency = CSRAdjacency.fromIncidence(hyperedges, incidence);
     }
 
     /**
@@ -93,83 +101,105 @@ public class HyperGraph {
      * with size not greater than lb
      */
     public void initializeNeighboursFromCandidates(ConnectedComponents CCS, int maxS, int lb) {
+        // overlaps already known, for both directions of each pair
+        Long2IntOpenHashMap known = new Long2IntOpenHashMap();
+        if (adjacency != null) {
+            for (int e = 0; e < adjacency.getNumEdges(); e++) {
+                for (int i = adjacency.getStart(e); i < adjacency.getEnd(e); i++) {
+                    known.put(ConnectedComponents.pairKey(e, adjacency.getTarget(i)), adjacency.getOverlap(i));
+                }
+            }
+        }
         // first consider all partial overlaps 
-        CCS.getOverlaps().entrySet().stream()
-                .forEach(p -> {
-                    Pair<Integer, Integer> pair = p.getKey();
-                    hyperedges.get(pair.getValue0()).addNeighbour(pair.getValue1(), p.getValue());
-                    hyperedges.get(pair.getValue1()).addNeighbour(pair.getValue0(), p.getValue());
-                });
-        // for each hyperedge, consider the list of candidate neighbours
-        Map<Integer, List<Integer>> candsUnion = CCS.getCandsNeigh()
-                .parallelStream()
-                .flatMap(m -> m.entrySet().stream())
-                .collect(Collectors.groupingBy(e -> e.getKey(),
-                        Collectors.mapping(e -> e.getValue(), Collectors.reducing(Lists.newArrayList(),
-                                (List<Integer> t, List<Integer> u) -> {
-                                    Set<Integer> union = Sets.newHashSet(t);
-                                    union.addAll(u);
-                                    return Lists.newArrayList(union);
-                                })
-                        )
-                ));
-        candsUnion.entrySet()
-                .stream()
-                .filter(e -> CCS.getSizeOf(1, CCS.getIdOfSCC(e.getKey(), 1)) > lb)
-                .forEach(e -> {
-                    Set<Integer> candidates = Sets.newHashSet(e.getValue());
-                    // remove those we already know are neighbours
-                    candidates.removeAll(getNeighborsOf(e.getKey()));
-                    Map<Integer, Integer> curr = findNeighboursAmongCands(e.getKey(), candidates, maxS);
-                    // update neighbour info
-                    getEdge(e.getKey()).updateNeighbourData(curr);
-                    curr.entrySet().stream().forEach(n -> {
-                        getEdge(n.getKey()).addNeighbour(e.getKey(), n.getValue());
-                    });
-                });
+        for (Long2IntMap.Entry p : CCS.getOverlaps().long2IntEntrySet()) {
+            int e1 = (int) (p.getLongKey() >>> 32);
+            int e2 = (int) p.getLongKey();
+            known.put(ConnectedComponents.pairKey(e1, e2), p.getIntValue());
+            known.put(ConnectedComponents.pairKey(e2, e1), p.getIntValue());
+        }
+        // then verify the candidate neighbours not known yet
+        long[] pairs = getCandidatePairs(CCS, known, lb);
+        int[] overlaps = new int[pairs.length];
+        IntStream.range(0, pairs.length).parallel().forEach(i -> {
+            overlaps[i] = Utils.cappedIntersectionSize(getEdge((int) (pairs[i] >>> 32)).getSortedVertices(),
+                    getEdge((int) pairs[i]).getSortedVertices(), maxS);
+        });
+        long[] entries = new long[known.size() + 2 * pairs.length];
+        int[] values = new int[entries.length];
+        int pos = 0;
+        for (Long2IntMap.Entry entry : known.long2IntEntrySet()) {
+            entries[pos] = entry.getLongKey();
+            values[pos++] = entry.getIntValue();
+        }
+        for (int i = 0; i < pairs.length; i++) {
+            entries[pos] = pairs[i];
+            values[pos++] = overlaps[i];
+            entries[pos] = ConnectedComponents.pairKey((int) pairs[i], (int) (pairs[i] >>> 32));
+            values[pos++] = overlaps[i];
+        }
+        this.adjacency = CSRAdjacency.fromEntries(getNumEdges(), entries, values);
     }
 
     /**
+     * Merge the candidate neighbours found for all s, without duplicates.
      *
-     * @param edge hyperedge
-     * @param vI vertex map
-     * @return map with entries (hyperedge id, overlap size), for all the
-     * hyperedges adjacent to edge
+     * @param CCS connected components
+     * @param known pairs of hyperedges whose overlap is already known
+     * @param lb we do not need to compute the neighbors of hyperedges in s-cc
+     * with size not greater than lb
+     * @return pairs (e1, e2) of candidate neighbours with e1 &lt; e2, packed
+     * with e1 in the high bits, sorted and distinct
      */
-    private Map<Integer, Integer> findNeighbours(HyperEdge edge, Map<Integer, List<Integer>> vI) {
-        Map<Integer, Integer> curr = Maps.newHashMap();
-        for (int v : edge.getVertices()) {
-            for (int n : vI.getOrDefault(v, Lists.newArrayList())) {
-                if (n != edge.getId()) {
-                    curr.put(n, curr.getOrDefault(n, 0) + 1);
-                }
+    private long[] getCandidatePairs(ConnectedComponents CCS, Long2IntOpenHashMap known, int lb) {
+        long[] pairs = CCS.getCandsNeigh()
+                .stream()
+                .flatMapToLong(cands -> IntStream.range(0, cands.size())
+                        .parallel()
+                        .mapToLong(i -> cands.getLong(i))
+                        .filter(pair -> {
+                            int e1 = (int) (pair >>> 32);
+                            int e2 = (int) pair;
+                            // remove those we already know are neighbours
+                            return e1 != e2
+                                    && !known.containsKey(pair)
+                                    && CCS.getSizeOf(1, CCS.getIdOfSCC(e1, 1)) > lb;
+                        })
+                        .map(pair -> ConnectedComponents.pairKey(Math.min((int) (pair >>> 32), (int) pair), 
+                                Math.max((int) (pair >>> 32), (int) pair))))
+                .toArray();
+        LongArrays.parallelQuickSort(pairs);
+        int numDistinct = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            if (i == 0 || pairs[i] != pairs[i - 1]) {
+                pairs[numDistinct++] = pairs[i];
             }
         }
-        return curr;
+        return Arrays.copyOf(pairs, numDistinct);
     }
 
     /**
      *
-     * @param edge hyperedge
-     * @param cands candidate neighbors of edge
-     * @param maxS max overlap size to consider
-     * @return map with entries (hyperedge id, approx overlap size), for all the
-     * hyperedges in cands adjacent to edge
+     * @param e hyperedge id
+     * @return ids of all the hyperedges adjacent to e
      */
-    private Map<Integer, Integer> findNeighboursAmongCands(int edge, Collection<Integer> cands, int maxS) {
-        return cands.parallelStream()
-                .map(cand -> new Pair<Integer, Integer>(cand, Utils.cappedIntersectionSize(getEdge(edge).getVertices(),
-                getEdge(cand).getVertices(), maxS)))
-                .collect(Collectors.toMap(x -> x.getValue0(), x -> x.getValue1()));
+    public Set<Integer> getNeighborsOf(int e) {
+        if (adjacency != null) {
+            return adjacency.getNeighbours(e);
+        }
+        return hyperedges.get(e).getNeighbours();
     }
 
     /**
      *
      * @param e hyperedge id
-     * @return ids of all the hyperedges adjacent to e
+     * @return map with entries (hyperedge id, overlap size), for all the
+     * hyperedges adjacent to e
      */
-    public Set<Integer> getNeighborsOf(int e) {
-        return hyperedges.get(e).getNeighbours();
+    public Map<Integer, Integer> getNeighbourDataOf(int e) {
+        if (adjacency != null) {
+            return adjacency.getNeighbourData(e);
+        }
+        return hyperedges.get(e).getNeighbourData();
     }
 
     /**
@@ -179,6 +209,9 @@ public class HyperGraph {
      * @return ids of all the hyperedges s-adjacent to e
      */
     public Set<Integer> getSNeighborsOf(int e, int s) {
+        if (adjacency != null) {
+            return adjacency.getSNeighbours(e, s);
+        }
         return hyperedges.get(e).getSNeighbours(s);
     }
 
@@ -189,6 +222,9 @@ public class HyperGraph {
      * @return number of hyperedges s-adjacent to e
      */
     public int getNumSNeighborsOf(int e, int s) {
+        if (adjacency != null) {
+            return adjacency.getNumSNeighbours(e, s);
+        }
         return hyperedges.get(e).getNumSNeighbours(s);
     }
 
@@ -199,7 +235,7 @@ public class HyperGraph {
      */
     public Map<Integer, Integer> getNumSNeighborsOfAll(int s) {
         Map<Integer, Integer> neigh = Maps.newHashMap();
-        hyperedges.stream().forEach(e -> neigh.put(e.getId(), e.getNumSNeighbours(s)));
+        hyperedges.stream().forEach(e -> neigh.put(e.getId(), getNumSNeighborsOf(e.getId(), s)));
         return neigh;
     }
 
@@ -208,14 +244,20 @@ public class HyperGraph {
      * @return number of distinct vertices in the hypergraph
      */
     public int getNumVertices() {
-        return vertexMap.size();
+        return incidence.getNumVertices();
     }
     
     /**
      * 
-     * @return for each vertex, the set of hyperedges including that vertex
+     * @return for each vertex, the set of hyperedges including that vertex;
+     * if the vertices have been remapped to dense ids, the map is backed by an array
      */
-    public Map<Integer, Set<Integer>> getVertexMap() {
+    public synchronized Map<Integer, Set<Integer>> getVertexMap() {
+        if (vertexMap == null) {
+            vertexMap = VertexRemap.isActive() && incidence.isDense() 
+                    ? incidence.toDenseVertexMap() 
+                    : incidence.toVertexMap();
+        }
         return vertexMap;
     }
     
@@ -224,7 +266,24 @@ public class HyperGraph {
      * @return set of vertices in this hypergraph
      */
     public Set<Integer> getVertices() {
-        return vertexMap.keySet();
+        return getVertexMap().keySet();
+    }
+    
+    /**
+     * 
+     * @return CSR incidence between vertices and hyperedges
+     */
+    public VertexIncidence getIncidence() {
+        return incidence;
+    }
+    
+    /**
+     * 
+     * @return CSR adjacency of the hyperedges, or null if the neighbours 
+     * have not been initialized
+     */
+    public CSRAdjacency getAdjacency() {
+        return adjacency;
     }
 
     /**
@@ -252,7 +311,7 @@ public class HyperGraph {
      * @return s-degree of hyperedge edge
      */
     public int getEdgeDegree(int edge, int s) {
-        return hyperedges.get(edge).getNumSNeighbours(s);
+        return getNumSNeighborsOf(edge, s);
     }
 
     /**
@@ -262,9 +321,18 @@ public class HyperGraph {
      * @return ids of hyperedges of size >= s containing vertex *v*
      */
     public Set<Integer> getSHyperEdgesOf(int v, int s) {
-        return vertexMap.get(v).stream()
-                .filter(e -> hyperedges.get(e).getNumVertices() >= s)
-                .collect(Collectors.toSet());
+        Set<Integer> memb = Sets.newHashSet();
+        int r = incidence.getRow(v);
+        if (r < 0) {
+            return memb;
+        }
+        for (int i = incidence.getStart(r); i < incidence.getEnd(r); i++) {
+            int e = incidence.getHyperEdge(i);
+            if (hyperedges.get(e).getNumVertices() >= s) {
+                memb.add(e);
+            }
+        }
+        return memb;
     }
     
     /**
@@ -273,7 +341,7 @@ public class HyperGraph {
      * @return number of hyperedges containing v
      */
     public int getNumHyperEdgesOf(int v) {
-        return vertexMap.get(v).size();
+        return incidence.getNumHyperEdgesOf(v);
     }
 
     /**
@@ -342,11 +410,46 @@ public class HyperGraph {
      * @return the s-connected components for each s not greater than maxS
      */
     public ConnectedComponents findConnectedComponents(int maxS) {
+        return searchConnectedComponents(maxS, true);
+    }
+    
+    /**
+     * Find all the s-connected components for each s up to maxS, at once.
+     * No meta-information is stored. Method used for the comparison with the
+     * baselines.
+     * 
+     * @param maxS max s searched
+     * @return the s-connected components for each s not greater than maxS
+     */
+    public ConnectedComponents simplifiedConnectedComponents(int maxS) {
+        return searchConnectedComponents(maxS, false);
+    }
+    
+    /**
+     * Find all the s-connected components for each s up to maxS, starting from
+     * the largest s. For s = 1, all the pairs of hyperedges sharing a vertex 
+     * are examined; for larger s, only the pairs with overlap at least s are
+     * found, with a prefix-filtering join. If Settings.singlePassCCs is true,
+     * all the s are searched in a single pass.
+     * 
+     * @param maxS max s searched
+     * @param withMeta whether the candidate neighbours and the memberships
+     * should be stored
+     * @return the s-connected components for each s not greater than maxS
+     */
+    private ConnectedComponents searchConnectedComponents(int maxS, boolean withMeta) {
+        if (Settings.singlePassCCs) {
+            return singlePassConnectedComponents(maxS, withMeta);
+        }
         // create structures
         ConnectedComponents CCS = new ConnectedComponents();
         Map<Integer, List<Integer>> vIndex = Maps.newHashMap();
         // instantiate BitSet to keep track of processed edges
         BitSet mask = new BitSet(getNumEdges());
+        // hyperedges in the order in which they are added to the index
+        int[] indexed = new int[getNumEdges()];
+        int[] insertion = new int[getNumEdges()];
+        int numIndexed = 0;
         // start from largest s, to exploit neighbouring info
         for (int s = maxS; s > 0; s--) {
             List<Integer> sEdgeView = getEdgesWithMinSize(s);
@@ -360,135 +463,228 @@ public class HyperGraph {
                     .map(cc -> cc.stream().map(e -> invMap.get(e)).collect(Collectors.toList()))
                     .forEach(cc -> uf.initializeFromCC(cc));
             // exploit info obtained from larger s values
-            CCS.getOverlappingPairs().stream()
-                    .forEach(p -> uf.union(invMap.get(p.getValue0()), invMap.get(p.getValue1())));
+            CCS.getOverlappingPairs()
+                    .forEach((long p) -> uf.union(invMap.get((int) (p >>> 32)), invMap.get((int) p)));
             // update vertex-hyperedge index
-            sEdgeView.stream()
-                    .filter(e -> !mask.get(e))
-                    .forEach(e -> {
-                        getEdge(e).getVertices()
-                                .stream()
-                                .forEach(v -> {
-                                    List<Integer> tmpList = vIndex.getOrDefault(v, Lists.newArrayList());
-                                    tmpList.add(e);
-                                    vIndex.put(v, tmpList);
-                                });
-                        mask.set(e);
-                    });
-            // sort hyperedges by decreasing size
-            vIndex.values().forEach(lst -> Collections.sort(lst, (Integer o1, Integer o2)
-                    -> -Integer.compare(getNumVerticesOf(o1), getNumVerticesOf(o2))));
-            // populate dynamic index
-            Map<Integer, Map<Integer, Integer>> eIndex = Maps.newHashMap();
-            final int size = s;
-            vIndex.keySet().forEach(v -> {
-                List<Integer> currentHE = vIndex.get(v);
-                int numHEdges = currentHE.size();
-                int i, j, v1, v2;
-                for (i = 0; i < numHEdges - 1; i++) {
-                    v1 = invMap.get(currentHE.get(i));
-                    Map<Integer, Integer> tmpI = eIndex.getOrDefault(v1, Maps.newHashMap());
-                    for (j = i + 1; j < numHEdges; j++) {
-                        v2 = invMap.get(currentHE.get(j));
-                        if (!uf.sameCC(v1, v2)) {
-                            tmpI.put(v2, tmpI.getOrDefault(v2, 0) + 1);
-                            if (tmpI.get(v2) >= size) {
-                                CCS.addOverlap(currentHE.get(i), currentHE.get(j), size);
-//                                uf.eTvLSP(v1, v2);
-                                uf.union(v1, v2);
-                            }
-                        } else {
-                            CCS.addCandidateNeighbourPair(currentHE.get(i), currentHE.get(j), size);
-                        }
+            for (int e : sEdgeView) {
+                if (!mask.get(e)) {
+                    for (int v : getEdge(e).getVertices()) {
+                        List<Integer> tmpList = vIndex.getOrDefault(v, Lists.newArrayList());
+                        tmpList.add(e);
+                        vIndex.put(v, tmpList);
                     }
-                    eIndex.put(v1, tmpI);
+                    mask.set(e);
+                    indexed[numIndexed] = e;
+                    insertion[e] = numIndexed++;
                 }
-            });
+            }
+            if (s == 1) {
+                joinSharedVertices(CCS, vIndex, e -> invMap.get(e), uf, withMeta);
+            } else {
+                // position of each hyperedge when sorted by decreasing size
+                int[] edgeOrder = getEdgeOrder(sEdgeView, indexed, insertion);
+                for (int[] pair : SOverlapJoin.join(this, sEdgeView, vIndex, edgeOrder, s)) {
+                    int v1 = invMap.get(pair[0]);
+                    int v2 = invMap.get(pair[1]);
+                    if (!uf.sameCC(v1, v2)) {
+                        CCS.addOverlap(pair[0], pair[1], s);
+                        uf.union(v1, v2);
+                    } else if (withMeta) {
+                        CCS.addCandidateNeighbourPair(pair[0], pair[1], s);
+                    }
+                }
+            }
             Map<Integer, List<Integer>> thisCCS = sEdgeView.parallelStream()
                     .collect(Collectors.groupingBy(id -> uf.find(invMap.get(id)), Collectors.toList()));
             List<List<Integer>> ccsList = Lists.newArrayList(thisCCS.values());
-            CCS.addSCCs(ccsList, s);
-            CCS.addMemberships(ccsList, s);
+            CCS.addSCCs(ccsList, s, withMeta);
         }
         return CCS;
     }
     
     /**
-     * Find all the s-connected components for each s up to maxS, at once.
-     * No meta-information is stored. Method used for the comparison with the
-     * baselines.
+     * Find all the s-connected components for each s up to maxS, in a single
+     * pass over the pairs of overlapping hyperedges. The overlaps of all the 
+     * pairs with overlap at least 2 are computed once, capped to maxS, and 
+     * grouped by overlap. A single union-find then processes the groups from 
+     * maxS down to 2, as in the search for a maximum spanning forest over the
+     * overlaps, and the s-connected components are read after each group.
+     * For s = 1, the pairs of hyperedges sharing a vertex are examined as in 
+     * the search from the largest s.
      * 
      * @param maxS max s searched
+     * @param withMeta whether the candidate neighbours and the memberships
+     * should be stored
      * @return the s-connected components for each s not greater than maxS
      */
-    public ConnectedComponents simplifiedConnectedComponents(int maxS) {
-        // create structures
+    private ConnectedComponents singlePassConnectedComponents(int maxS, boolean withMeta) {
         ConnectedComponents CCS = new ConnectedComponents();
+        WQUFPC uf = new WQUFPC(getNumEdges());
+        // vertex-hyperedge index
         Map<Integer, List<Integer>> vIndex = Maps.newHashMap();
-        // instantiate BitSet to keep track of processed edges
-        BitSet mask = new BitSet(getNumEdges());
-        // start from largest s, to exploit neighbouring info
-        for (int s = maxS; s > 0; s--) {
-            List<Integer> sEdgeView = getEdgesWithMinSize(s);
-            Map<Integer, Integer> invMap = Maps.newHashMap();
-            for (int i = 0; i < sEdgeView.size(); i++) {
-                invMap.put(sEdgeView.get(i), i);
+        for (int e : getEdgesWithMinSize(1)) {
+            for (int v : getEdge(e).getVertices()) {
+                List<Integer> tmpList = vIndex.getOrDefault(v, Lists.newArrayList());
+                tmpList.add(e);
+                vIndex.put(v, tmpList);
             }
-            WQUFPC uf = new WQUFPC(sEdgeView.size());
-            // exploit info obtained from s+1
-            CCS.getSCCs(s + 1).parallelStream()
-                    .map(cc -> cc.stream().map(e -> invMap.get(e)).collect(Collectors.toList()))
-                    .forEach(cc -> uf.initializeFromCC(cc));
-            // exploit info obtained from larger s values
-            CCS.getOverlappingPairs().stream()
-                    .forEach(p -> uf.union(invMap.get(p.getValue0()), invMap.get(p.getValue1())));
-            // update vertex-hyperedge index
-            sEdgeView.stream()
-                    .filter(e -> !mask.get(e))
-                    .forEach(e -> {
-                        getEdge(e).getVertices()
-                                .stream()
-                                .forEach(v -> {
-                                    List<Integer> tmpList = vIndex.getOrDefault(v, Lists.newArrayList());
-                                    tmpList.add(e);
-                                    vIndex.put(v, tmpList);
-                                });
-                        mask.set(e);
-                    });
-            // sort hyperedges by decreasing size
-            vIndex.values().forEach(lst -> Collections.sort(lst, (Integer o1, Integer o2)
-                    -> -Integer.compare(getNumVerticesOf(o1), getNumVerticesOf(o2))));
-            // populate dynamic index
-            Map<Integer, Map<Integer, Integer>> eIndex = Maps.newHashMap();
-            final int size = s;
-            vIndex.keySet().forEach(v -> {
-                List<Integer> currentHE = vIndex.get(v);
-                int numHEdges = currentHE.size();
-                int i, j, v1, v2;
-                for (i = 0; i < numHEdges - 1; i++) {
-                    v1 = invMap.get(currentHE.get(i));
-                    Map<Integer, Integer> tmpI = eIndex.getOrDefault(v1, Maps.newHashMap());
-                    for (j = i + 1; j < numHEdges; j++) {
-                        v2 = invMap.get(currentHE.get(j));
-                        if (!uf.sameCC(v1, v2)) {
-                            tmpI.put(v2, tmpI.getOrDefault(v2, 0) + 1);
-                            if (tmpI.get(v2) >= size) {
-                                CCS.addOverlap(currentHE.get(i), currentHE.get(j), size);
-//                                uf.eTvLSP(v1, v2);
-                                uf.union(v1, v2);
-                            }
-                        }
+        }
+        // pairs of hyperedges with overlap at least 2, grouped by capped overlap
+        LongArrayList[] buckets = new LongArrayList[maxS + 1];
+        for (int s = 2; s <= maxS; s++) {
+            buckets[s] = new LongArrayList();
+        }
+        if (maxS >= 2) {
+            for (int[] pair : SOverlapJoin.cappedOverlaps(this, getEdgesWithMinSize(2), vIndex, 2, maxS)) {
+                buckets[pair[2]].add(((long) pair[0] << 32) | pair[1]);
+            }
+        }
+        for (int s = maxS; s > 0; s--) {
+            if (s == 1) {
+                joinSharedVertices(CCS, vIndex, e -> e, uf, withMeta);
+            } else {
+                for (int i = 0; i < buckets[s].size(); i++) {
+                    int e1 = (int) (buckets[s].getLong(i) >>> 32);
+                    int e2 = (int) buckets[s].getLong(i);
+                    if (!uf.sameCC(e1, e2)) {
+                        CCS.addOverlap(e1, e2, s);
+                        uf.union(e1, e2);
+                    } else if (withMeta) {
+                        CCS.addCandidateNeighbourPair(e1, e2, s);
                     }
-                    eIndex.put(v1, tmpI);
                 }
-            });
-            Map<Integer, List<Integer>> thisCCS = sEdgeView.parallelStream()
-                    .collect(Collectors.groupingBy(id -> uf.find(invMap.get(id)), Collectors.toList()));
+                // release the pairs already processed
+                buckets[s] = null;
+            }
+            Map<Integer, List<Integer>> thisCCS = getEdgesWithMinSize(s).parallelStream()
+                    .collect(Collectors.groupingBy(id -> uf.find(id), Collectors.toList()));
             List<List<Integer>> ccsList = Lists.newArrayList(thisCCS.values());
-            CCS.addSCCs(ccsList, s);
+            CCS.addSCCs(ccsList, s, withMeta);
         }
         return CCS;
     }
+    
+    /**
+     * Join the hyperedges sharing a vertex, when searching for the 
+     * 1-connected components.
+     * 
+     * @param CCS connected components
+     * @param vIndex for each vertex, the hyperedges including it
+     * @param index position of each hyperedge in the union-find
+     * @param uf union-find
+     * @param withMeta whether the candidate neighbours should be stored
+     */
+    private void joinSharedVertices(ConnectedComponents CCS, 
+            Map<Integer, List<Integer>> vIndex, 
+            IntUnaryOperator index, 
+            WQUFPC uf, 
+            boolean withMeta) {
+        // sort hyperedges by decreasing size
+        vIndex.values().forEach(lst -> Collections.sort(lst, (Integer o1, Integer o2)
+                -> -Integer.compare(getNumVerticesOf(o1), getNumVerticesOf(o2))));
+        List<List<Integer>> lists = Lists.newArrayList(vIndex.values());
+        // the first hyperedge of each vertex is joined with all the
+        // others, so the other pairs sharing the vertex are in the same cc
+        BitSet joined = new BitSet();
+        int pos = 0;
+        for (List<Integer> currentHE : lists) {
+            int v1 = index.applyAsInt(currentHE.get(0));
+            for (int j = 1; j < currentHE.size(); j++) {
+                int v2 = index.applyAsInt(currentHE.get(j));
+                if (!uf.sameCC(v1, v2)) {
+                    CCS.addOverlap(currentHE.get(0), currentHE.get(j), 1);
+                    uf.union(v1, v2);
+                    joined.set(pos + j);
+                }
+            }
+            pos += currentHE.size();
+        }
+        if (withMeta) {
+            addCandidateNeighbours(CCS, lists, joined);
+        }
+    }
+    
+    /**
+     * Store as candidate neighbours all the pairs of hyperedges sharing a vertex
+     * that have not been joined by the 1-cc search. The vertices are split 
+     * into chunks with a similar number of pairs, which are processed in 
+     * parallel; the candidates of each chunk are then stored in the order of 
+     * the chunks, and of first appearance within each chunk, so that they are
+     * stored in the order in which the vertices are scanned.
+     * 
+     * @param CCS connected components
+     * @param lists for each vertex, in the order of the scan, the hyperedges 
+     * including it
+     * @param joined positions (in the concatenation of lists) of the 
+     * hyperedges that have been joined with the first hyperedge of their list
+     */
+    private void addCandidateNeighbours(ConnectedComponents CCS, List<List<Integer>> lists, BitSet joined) {
+        long[] work = new long[lists.size() + 1];
+        int[] offsets = new int[lists.size() + 1];
+        for (int x = 0; x < lists.size(); x++) {
+            long size = lists.get(x).size();
+            work[x + 1] = work[x] + size * (size - 1) / 2;
+            offsets[x + 1] = offsets[x] + lists.get(x).size();
+        }
+        int numChunks = (int) Math.max(1, Math.min(lists.size(), 4L * ForkJoinPool.getCommonPoolParallelism()));
+        // first vertex of each chunk
+        int[] starts = new int[numChunks + 1];
+        for (int c = 1; c < numChunks; c++) {
+            long target = work[lists.size()] * c / numChunks;
+            int x = Arrays.binarySearch(work, target);
+            starts[c] = Math.max(starts[c - 1], x < 0 ? -x - 1 : x);
+        }
+        starts[numChunks] = lists.size();
+        List<Int2ObjectLinkedOpenHashMap<IntArrayList>> chunks = IntStream.range(0, numChunks)
+                .parallel()
+                .mapToObj(c -> {
+                    Int2ObjectLinkedOpenHashMap<IntArrayList> cands = new Int2ObjectLinkedOpenHashMap<>();
+                    for (int x = starts[c]; x < starts[c + 1]; x++) {
+                        List<Integer> currentHE = lists.get(x);
+                        for (int i = 0; i < currentHE.size() - 1; i++) {
+                            IntArrayList tmpList = cands.get(currentHE.get(i).intValue());
+                            for (int j = i + 1; j < currentHE.size(); j++) {
+                                if (i == 0 && joined.get(offsets[x] + j)) {
+                                    continue;
+                                }
+                                if (tmpList == null) {
+                                    tmpList = new IntArrayList();
+                                    cands.put(currentHE.get(i).intValue(), tmpList);
+                                }
+                                tmpList.add(currentHE.get(j).intValue());
+                            }
+                        }
+                    }
+                    return cands;
+                })
+                .collect(Collectors.toList());
+        for (Int2ObjectLinkedOpenHashMap<IntArrayList> cands : chunks) {
+            cands.int2ObjectEntrySet().forEach(e -> CCS.addCandidateNeighbours(e.getIntKey(), e.getValue(), 1));
+        }
+    }
+    
+    /**
+     * 
+     * @param sEdgeView hyperedges with size not lower than s
+     * @param indexed hyperedges in the order in which they were added to the 
+     * vertex-hyperedge index
+     * @param insertion position of each hyperedge in indexed
+     * @return position of each hyperedge in sEdgeView when sorted by 
+     * decreasing size, and then by insertion in the index
+     */
+    private int[] getEdgeOrder(List<Integer> sEdgeView, int[] indexed, int[] insertion) {
+        long[] keys = new long[sEdgeView.size()];
+        for (int k = 0; k < keys.length; k++) {
+            int e = sEdgeView.get(k);
+            keys[k] = ((long) (Integer.MAX_VALUE - getNumVerticesOf(e)) << 32) | insertion[e];
+        }
+        Arrays.sort(keys);
+        int[] edgeOrder = new int[getNumEdges()];
+        for (int k = 0; k < keys.length; k++) {
+            edgeOrder[indexed[(int) keys[k]]] = k;
+        }
+        return edgeOrder;
+    }
 
     /**
      *
@@ -498,7 +694,7 @@ public class HyperGraph {
      * hyperedges in that s-cc
      */
     public List<List<Integer>> findSConnectedComponents(List<Integer> sHyperEdges, int s) {
-        WQUFPC uf = new WQUFPC(sHyperEdges.size());
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(sHyperEdges.size());
         Map<Integer, List<Integer>> vIndex = IntStream.range(0, sHyperEdges.size())
                 .boxed()
                 .parallel()
@@ -510,27 +706,19 @@ public class HyperGraph {
         // sort hyperedges by decreasing size
         vIndex.values().forEach(lst -> Collections.sort(lst, (Integer o1, Integer o2)
                 -> -Integer.compare(getNumVerticesOf(sHyperEdges.get(o1)), getNumVerticesOf(sHyperEdges.get(o2)))));
-        Map<Integer, Map<Integer, Integer>> eIndex = Maps.newHashMap();
-        vIndex.keySet().forEach(v -> {
-            List<Integer> currentHE = vIndex.get(v);
-            int numHEdges = currentHE.size();
-            int i, j, v1, v2;
-            for (i = 0; i < numHEdges; i++) {
-                v1 = currentHE.get(i);
-                Map<Integer, Integer> tmpI = eIndex.getOrDefault(v1, Maps.newHashMap());
-                for (j = i + 1; j < numHEdges; j++) {
-                    v2 = currentHE.get(j);
-                    if (!uf.sameCC(v1, v2)) {
-                        tmpI.put(v2, tmpI.getOrDefault(v2, 0) + 1);
-                        if (tmpI.get(v2) >= s) {
-//                            uf.eTvLSP(v1, v2);
-                            uf.union(v1, v2);
-                        }
-                    }
+        if (s == 1) {
+            // the first hyperedge of each vertex is joined with all the others
+            vIndex.values().parallelStream().forEach(currentHE -> {
+                for (int j = 1; j < currentHE.size(); j++) {
+                    uf.union(currentHE.get(0), currentHE.get(j));
                 }
-                eIndex.put(v1, tmpI);
-            }
-        });
+            });
+        } else {
+            // the union does not depend on the order of the pairs
+            Arrays.stream(SOverlapJoin.unorderedJoin(this, sHyperEdges, vIndex, s))
+                    .parallel()
+                    .forEach(pair -> uf.union((int) (pair >>> 32), (int) pair));
+        }
         Map<Integer, List<Integer>> ccs = IntStream.range(0, sHyperEdges.size())
                 .boxed()
                 .parallel()
@@ -539,6 +727,27 @@ public class HyperGraph {
         return Lists.newArrayList(ccs.values());
     }
 
+    /**
+     * BFS from start on the s-line graph, run by the engine of the current 
+     * thread. The engine is reused by the next search of the same thread.
+     * The search is direction-optimizing if s is not greater than 
+     * Settings.directionOptimizingMaxS.
+     *
+     * @param start starting hyperedge
+     * @param s min overlap size
+     * @return engine storing the s-distances from start to all the hyperedges
+     * reachable from start
+     */
+    public BFSEngine searchFrom(int start, int s) {
+        BFSEngine bfs = BFSEngine.local(getNumEdges());
+        if (s <= Settings.directionOptimizingMaxS) {
+            bfs.runDirectionOptimizing(adjacency, start, s);
+        } else {
+            bfs.run(adjacency, start, s);
+        }
+        return bfs;
+    }
+
     /**
      *
      * @param start starting hyperedge
@@ -547,29 +756,7 @@ public class HyperGraph {
      * start
      */
     public Map<Integer, Integer> findDistancesFrom(int start, int s) {
-        Set<Integer> visited = Sets.newHashSet();
-        Map<Integer, Integer> distances = Maps.newHashMap();
-        Queue<Pair<Integer, Integer>> queue = new PriorityQueue(new Comparator<Pair<Integer, Integer>>() {
-            @Override
-            public int compare(Pair<Integer, Integer> o1, Pair<Integer, Integer> o2) {
-                return Integer.compare(o1.getValue1(), o2.getValue1());
-            }
-        });
-        queue.add(new Pair<>(start, 1));
-        visited.add(start);
-        distances.put(start, 0);
-        while (!queue.isEmpty()) {
-            Pair<Integer, Integer> entry = queue.poll();
-            int eID = entry.getValue0();
-            int step = entry.getValue1();
-            for (int ngb : hyperedges.get(eID).getSNeighbours(s)) {
-                if (visited.add(ngb)) {
-                    distances.put(ngb, step);
-                    queue.add(new Pair<>(ngb, step + 1));
-                }
-            }
-        }
-        return distances;
+        return searchFrom(start, s).toMap();
     }
     
     /**
@@ -590,114 +777,32 @@ public class HyperGraph {
             int maxReached,
             String kind) {
     
-        Set<Integer> visited = Sets.newHashSet();
-        Map<Integer, Integer> distances = Maps.newHashMap();
         String startLabel = (labels != null) ? labels.get(start) : "";
-        Queue<Pair<Integer, Integer>> queue = new PriorityQueue(new Comparator<Pair<Integer, Integer>>() {
-            @Override
-            public int compare(Pair<Integer, Integer> o1, Pair<Integer, Integer> o2) {
-                return Integer.compare(o1.getValue1(), o2.getValue1());
-            }
-        });
-        queue.add(new Pair<>(start, 1));
-        visited.add(start);
-        distances.put(start, 0);
-        int reached = 0;
-        while (!queue.isEmpty() && reached < maxReached) {
-            Pair<Integer, Integer> entry = queue.poll();
-            int eID = entry.getValue0();
-            int step = entry.getValue1();
-            for (int ngb : hyperedges.get(eID).getSNeighbours(s)) {
-                if (visited.add(ngb)) {
-                    distances.put(ngb, step);
-                    if (labels == null || 
-                            !kind.equalsIgnoreCase("vertex") && labels.get(ngb).equalsIgnoreCase(startLabel) ||
-                            kind.equalsIgnoreCase("vertex") && getEdge(ngb).getVertices().stream().anyMatch(v -> labels.get(v).equalsIgnoreCase(startLabel))) {
-                        reached += 1;
-                    }
-                    queue.add(new Pair<>(ngb, step + 1));
-                }
-            }
+        IntPredicate counted;
+        if (labels == null) {
+            counted = ngb -> true;
+        } else if (!kind.equalsIgnoreCase("vertex")) {
+            counted = ngb -> labels.get(ngb).equalsIgnoreCase(startLabel);
+        } else {
+            counted = ngb -> getEdge(ngb).getVertices().stream().anyMatch(v -> labels.get(v).equalsIgnoreCase(startLabel));
         }
-        return distances;
+        BFSEngine bfs = BFSEngine.local(getNumEdges());
+        bfs.run(adjacency, start, s, counted, maxReached);
+        return bfs.toMap();
     }
 
     /**
-     * Bidirectional BFS to find s-distance between hyperedges
+     * Bidirectional BFS to find s-distance between hyperedges, run by the 
+     * search of the current thread.
      *
      * @param a source hyperedge
      * @param b destination hyperedge
      * @param s min overlap between consecutive hyperedges
-     * @param estSize estimated size of the component including a and b
-     * @return s-distance between a and b
+     * @return hyperedges in a shortest s-path from a to b, in order; empty if 
+     * b is not s-reachable from a
      */
-    public Set<Integer> bidirectionalSPSearch(int a, int b, int s, int estSize) {
-        Set<Integer> path = Sets.newHashSet();
-        if (a == b) {
-            path.add(a);
-            return path;
-        }
-        Tree treeA = new Tree(estSize);
-        Tree treeB = new Tree(estSize);
-        ArrayDeque<Pair<Integer, Integer>> queueA = new ArrayDeque<>(getNumEdges() / 2);
-        ArrayDeque<Pair<Integer, Integer>> queueB = new ArrayDeque<>(getNumEdges() / 2);
-
-        queueA.add(new Pair<>(a, 0));
-        treeA.addNode(a, -1);
-        queueB.add(new Pair<>(b, 0));
-        treeB.addNode(b, -1);
-        int frontier = 0;
-
-        while (!queueA.isEmpty() && !queueB.isEmpty()) {
-            if (stepForward(queueA, treeA, treeB, s, frontier)) {
-                path = treeA.treeIntersect(treeB);
-                if (!path.isEmpty()) {
-                    return path;
-                }
-            }
-            if (stepForward(queueB, treeB, treeA, s, frontier)) {
-                path = treeB.treeIntersect(treeA);
-                if (!path.isEmpty()) {
-                    return path;
-                }
-            }
-            frontier += 1;
-        }
-        return path;
-    }
-
-    /**
-     *
-     * @param queue hyperedges left to examine
-     * @param visited hyperedges visited from source
-     * @param s min overlap size
-     * @param frontier distance from source of the hyperedges in the frontier
-     * @return true if some hyperedge has already been reached from the
-     * destination
-     */
-    private boolean stepForward(ArrayDeque<Pair<Integer, Integer>> queue,
-            Tree visitedFromSrc,
-            Tree visitedFromDst,
-            int s, int frontier) {
-
-        boolean intersect = false;
-        while (!queue.isEmpty()) {
-            if (queue.peek().getValue1() > frontier) {
-                break;
-            }
-            Pair<Integer, Integer> p = queue.poll();
-            int eID = p.getValue0();
-            for (int ngb : hyperedges.get(eID).getSNeighbours(s)) {
-                if (!visitedFromSrc.hasBeenVisited(ngb, true)) {
-                    visitedFromSrc.addNode(ngb, eID);
-                    queue.add(new Pair<>(ngb, p.getValue1() + 1));
-                }
-                if (visitedFromDst.hasBeenVisited(ngb, false)) {
-                    intersect = true;
-                }
-            }
-        }
-        return intersect;
+    public int[] bidirectionalSPSearch(int a, int b, int s) {
+        return BidirectionalBFS.local(getNumEdges()).run(adjacency, a, b, s);
     }
 
     /**
@@ -726,7 +831,9 @@ public class HyperGraph {
             Pair<Integer, Integer> entry = queue.poll();
             int eID = entry.getValue0();
             int step = entry.getValue1();
-            for (int ngb : hyperedges.get(eID).getSNeighbours(s)) {
+            int end = adjacency.getSEnd(eID, s);
+            for (int i = adjacency.getStart(eID); i < end; i++) {
+                int ngb = adjacency.getTarget(i);
                 // if I have not visited ngb or I have visited it through a 
                 // path with length equal to the current one (i.e., they are
                 // both shortest paths)
@@ -826,7 +933,7 @@ public class HyperGraph {
                 .map(pair -> {
                     DistanceProfile dp = new DistanceProfile(pair.getValue0(), pair.getValue1());
                     for (int i = 1; i <= maxS; i++) {
-                        int d = bidirectionalSPSearch(pair.getValue0(), pair.getValue1(), i, getNumEdges()).size() - 1;
+                        int d = bidirectionalSPSearch(pair.getValue0(), pair.getValue1(), i).length - 1;
                         if (d > 0) {
                             dp.addDistance(i, d);
                         }
@@ -851,8 +958,7 @@ public class HyperGraph {
                     int d = bidirectionalSPSearch(
                             tri.getValue0(), 
                             tri.getValue1(), 
-                            tri.getValue2(),
-                            getNumEdges()).size() - 1;
+                            tri.getValue2()).length - 1;
                     if (d > 0) {
                         dp.addDistance(tri.getValue2(), d);
                     }
@@ -878,13 +984,11 @@ public class HyperGraph {
                     if (getNumVerticesOf(e) < s) {
                         return new Pair<>(e, 0.);
                     }
-                    Map<Integer, Integer> distances = findDistancesFrom(e, s);
-                    double sum = distances.values().stream().mapToInt(i -> i).sum();
-                    int numElem = distances.size() - 1;
-                    // map could contain e itself
-                    if (distances.containsKey(e)) {
-                        numElem --;
-                    }
+                    BFSEngine bfs = searchFrom(e, s);
+                    double sum = bfs.getDistanceSum();
+                    int numElem = bfs.getNumReached() - 1;
+                    // search results contain e itself
+                    numElem --;
                     if (numElem > 0) {
                         return new Pair<>(e, numElem/sum);
                     }
@@ -914,7 +1018,7 @@ public class HyperGraph {
                             int d = Integer.MAX_VALUE;
                             for (int e1 : getSHyperEdgesOf(pair.getValue0(), i)) {
                                 for (int e2 : getSHyperEdgesOf(pair.getValue1(), i)) {
-                                    int pathSize = bidirectionalSPSearch(e1, e2, i, getNumEdges()).size() - 1;
+                                    int pathSize = bidirectionalSPSearch(e1, e2, i).length - 1;
                                     if (pathSize > 0) {
                                         d = Math.min(d, pathSize);
                                     }
@@ -948,7 +1052,7 @@ public class HyperGraph {
                         int d = Integer.MAX_VALUE;
                         for (int e1 : getSHyperEdgesOf(tri.getValue0(), tri.getValue2())) {
                             for (int e2 : getSHyperEdgesOf(tri.getValue1(), tri.getValue2())) {
-                                int pathSize = bidirectionalSPSearch(e1, e2, tri.getValue2(), getNumEdges()).size() - 1;
+                                int pathSize = bidirectionalSPSearch(e1, e2, tri.getValue2()).length - 1;
                                 if (pathSize > 0) {
                                     d = Math.min(d, pathSize);
                                 }
@@ -984,14 +1088,12 @@ public class HyperGraph {
                     // (the smallest the value, the more central the vertex)
                     double cent = 0.;
                     for (int e1 : getSHyperEdgesOf(v, s)) {
-                        Map<Integer, Integer> thisDistances = findDistancesFrom(e1, s);
+                        BFSEngine bfs = searchFrom(e1, s);
                         // compute s-centrality of e1
-                        double sum = thisDistances.values().stream().mapToInt(i -> i).sum();
-                        int numElem = thisDistances.size() - 1;
-                        // map could contain e itself
-                        if (thisDistances.containsKey(e1)) {
-                            numElem --;
-                        }
+                        double sum = bfs.getDistanceSum();
+                        int numElem = bfs.getNumReached() - 1;
+                        // search results contain e1 itself
+                        numElem --;
                         if (numElem > 0) {
                             cent = Math.max(cent, numElem/sum);
                         }
@@ -1018,7 +1120,7 @@ public class HyperGraph {
                     for (int i = 1; i <= maxS; i++) {
                         int d = Integer.MAX_VALUE;
                         for (int e1 : getSHyperEdgesOf(pair.getValue0(), i)) {
-                            int pathSize = bidirectionalSPSearch(e1, pair.getValue1(), i, getNumEdges()).size() - 1;
+                            int pathSize = bidirectionalSPSearch(e1, pair.getValue1(), i).length - 1;
                             if (pathSize > 0) {
                                 d = Math.min(d, pathSize);
                             }
@@ -1046,7 +1148,7 @@ public class HyperGraph {
                     DistanceProfile dp = new DistanceProfile(tri.getValue0(), tri.getValue1());
                     int d = Integer.MAX_VALUE;
                     for (int e1 : getSHyperEdgesOf(tri.getValue0(), tri.getValue2())) {
-                        int pathSize = bidirectionalSPSearch(e1, tri.getValue1(), tri.getValue2(), getNumEdges()).size() - 1;
+                        int pathSize = bidirectionalSPSearch(e1, tri.getValue1(), tri.getValue2()).length - 1;
                         if (pathSize > 0) {
                             d = Math.min(d, pathSize);
                         }
@@ -1192,7 +1294,7 @@ public class HyperGraph {
     }
 
     public void printVertexMap() {
-        vertexMap.entrySet().forEach(e -> {
+        getVertexMap().entrySet().forEach(e -> {
             System.out.print("V:" + e.getKey() + "\t");
             System.out.println("MEMB:" + e.getValue().toString());
         });
@@ -1201,7 +1303,7 @@ public class HyperGraph {
     public void printNeighbours() {
         hyperedges.stream().forEach(edge -> {
             System.out.println("E:" + edge.toString());
-            edge.getNeighbourData()
+            getNeighbourDataOf(edge.getId())
                     .entrySet()
                     .forEach(n -> System.out.println("("
                     + hyperedges.get(n.getKey()).toString()
@@ -1212,7 +1314,7 @@ public class HyperGraph {
 
     public void printNumNeighbours() {
         hyperedges.stream().forEach(edge
-                -> System.out.println(edge.getId() + "," + edge.getNumSNeighbours(1)));
+                -> System.out.println(edge.getId() + "," + getNumSNeighborsOf(edge.getId(), 1)));
     }
 
 }
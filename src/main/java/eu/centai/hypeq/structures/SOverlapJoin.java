@@ -0,0 +1,284 @@
+package eu.centai.hypeq.structures;
+
+import com.google.common.collect.Lists;
+import eu.centai.hypeq.utils.Utils;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Set-similarity join that finds the pairs of hyperedges with overlap at
+ * least s, without counting the overlaps of all the pairs of hyperedges
+ * sharing a vertex.
+ * The vertices of each hyperedge are sorted by increasing frequency, and two
+ * hyperedges are candidates only if they share a vertex among the first
+ * |e| - s + 1 vertices of both (prefix filtering); candidates that cannot
+ * share s vertices given the positions of their first common vertex are
+ * discarded (positional filtering), and the others are verified by
+ * intersecting their sorted vertex arrays.
+ * The pairs are returned either in the order in which a scan of the vertex
+ * index would find that their overlap reaches s, or in no particular order
+ * when only the pairs are needed. The same filters are used to compute once
+ * the overlaps, capped to a max value, of all the pairs of hyperedges with
+ * overlap at least s.
+ *
+ * @author giulia
+ */
+public class SOverlapJoin {
+
+    /**
+     *
+     * @param graph hypergraph
+     * @param sEdgeView hyperedges with size not lower than s, in increasing order of id
+     * @param vIndex for each vertex, the hyperedges in sEdgeView including it;
+     * vertices are scanned in the iteration order of the map
+     * @param edgeOrder position of each hyperedge in the lists of vIndex
+     * @param s min overlap size
+     * @return pairs (e1, e2) of hyperedges with overlap not lower than s, with
+     * e1 before e2 in edgeOrder, sorted by the vertex at which the overlap
+     * reaches s in the scan of vIndex, and then by the positions of e1 and e2
+     */
+    public static List<int[]> join(HyperGraph graph,
+            List<Integer> sEdgeView,
+            Map<Integer, List<Integer>> vIndex,
+            int[] edgeOrder,
+            int s) {
+        // position of each vertex in the scan, and number of hyperedges including it
+        Int2IntOpenHashMap scanPos = new Int2IntOpenHashMap(vIndex.size());
+        Int2IntOpenHashMap freq = new Int2IntOpenHashMap(vIndex.size());
+        int pos = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : vIndex.entrySet()) {
+            scanPos.put(entry.getKey().intValue(), pos++);
+            freq.put(entry.getKey().intValue(), entry.getValue().size());
+        }
+        int n = sEdgeView.size();
+        int[][] tokens = getTokens(graph, sEdgeView, freq);
+        Int2ObjectOpenHashMap<LongArrayList> prefixIndex = getPrefixIndex(tokens, s);
+        // each pair is (scan position, position of e1, position of e2)
+        List<int[]> events = IntStream.range(0, n)
+                .parallel()
+                .mapToObj(k -> {
+                    int[] vk = graph.getEdge(sEdgeView.get(k)).getSortedVertices();
+                    int ek = edgeOrder[sEdgeView.get(k)];
+                    return probe(graph, sEdgeView, tokens, prefixIndex, k, s, s)
+                            .stream()
+                            .map(found -> {
+                                int[] vb = graph.getEdge(sEdgeView.get(found[0])).getSortedVertices();
+                                int eb = edgeOrder[sEdgeView.get(found[0])];
+                                return new int[]{sthCommonVertex(vk, vb, scanPos, s), Math.min(ek, eb), Math.max(ek, eb)};
+                            });
+                })
+                .flatMap(x -> x)
+                .sorted(Comparator.<int[]>comparingInt(ev -> ev[0])
+                        .thenComparingInt(ev -> ev[1])
+                        .thenComparingInt(ev -> ev[2]))
+                .collect(Collectors.toList());
+        // map positions back to hyperedges
+        int[] byOrder = new int[edgeOrder.length];
+        for (int e : sEdgeView) {
+            byOrder[edgeOrder[e]] = e;
+        }
+        return events.stream()
+                .map(ev -> new int[]{byOrder[ev[1]], byOrder[ev[2]]})
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Find the pairs of hyperedges with overlap at least s, without computing
+     * the order in which a scan of the vertex index would find them.
+     *
+     * @param graph hypergraph
+     * @param sEdgeView hyperedges with size not lower than s
+     * @param vIndex for each vertex, the hyperedges in sEdgeView including it
+     * @param s min overlap size
+     * @return pairs of positions in sEdgeView of the hyperedges with overlap
+     * not lower than s, packed with the higher position in the high bits, in
+     * no particular order
+     */
+    public static long[] unorderedJoin(HyperGraph graph,
+            List<Integer> sEdgeView,
+            Map<Integer, List<Integer>> vIndex,
+            int s) {
+        Int2IntOpenHashMap freq = new Int2IntOpenHashMap(vIndex.size());
+        vIndex.entrySet().forEach(entry -> freq.put(entry.getKey().intValue(), entry.getValue().size()));
+        int[][] tokens = getTokens(graph, sEdgeView, freq);
+        Int2ObjectOpenHashMap<LongArrayList> prefixIndex = getPrefixIndex(tokens, s);
+        return IntStream.range(0, sEdgeView.size())
+                .parallel()
+                .mapToObj(k -> probe(graph, sEdgeView, tokens, prefixIndex, k, s, s)
+                        .stream()
+                        .mapToLong(found -> ((long) k << 32) | found[0]))
+                .flatMapToLong(x -> x)
+                .toArray();
+    }
+
+    /**
+     * Compute once the overlaps, capped to maxS, of all the pairs of 
+     * hyperedges with overlap at least s.
+     *
+     * @param graph hypergraph
+     * @param sEdgeView hyperedges with size not lower than s
+     * @param vIndex for each vertex, the hyperedges in sEdgeView including it
+     * @param s min overlap size
+     * @param maxS max overlap size
+     * @return triples (e1, e2, min(overlap, maxS)) for all the pairs of 
+     * hyperedges with overlap not lower than s, with e1 &lt; e2, sorted by e1 
+     * and then by e2
+     */
+    public static List<int[]> cappedOverlaps(HyperGraph graph,
+            List<Integer> sEdgeView,
+            Map<Integer, List<Integer>> vIndex,
+            int s,
+            int maxS) {
+        Int2IntOpenHashMap freq = new Int2IntOpenHashMap(vIndex.size());
+        vIndex.entrySet().forEach(entry -> freq.put(entry.getKey().intValue(), entry.getValue().size()));
+        int[][] tokens = getTokens(graph, sEdgeView, freq);
+        Int2ObjectOpenHashMap<LongArrayList> prefixIndex = getPrefixIndex(tokens, s);
+        return IntStream.range(0, sEdgeView.size())
+                .parallel()
+                .mapToObj(k -> probe(graph, sEdgeView, tokens, prefixIndex, k, s, maxS)
+                        .stream()
+                        .map(found -> {
+                            int ek = sEdgeView.get(k);
+                            int eb = sEdgeView.get(found[0]);
+                            return new int[]{Math.min(ek, eb), Math.max(ek, eb), found[1]};
+                        }))
+                .flatMap(x -> x)
+                .sorted(Comparator.<int[]>comparingInt(p -> p[0])
+                        .thenComparingInt(p -> p[1]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     *
+     * @param graph hypergraph
+     * @param sEdgeView hyperedges with size not lower than s
+     * @param freq number of hyperedges in sEdgeView including each vertex
+     * @return vertices of each hyperedge in sEdgeView, by increasing frequency
+     */
+    private static int[][] getTokens(HyperGraph graph, List<Integer> sEdgeView, Int2IntOpenHashMap freq) {
+        int[][] tokens = new int[sEdgeView.size()][];
+        IntStream.range(0, sEdgeView.size()).parallel().forEach(k -> {
+            int[] vertices = graph.getEdge(sEdgeView.get(k)).getSortedVertices();
+            long[] keys = new long[vertices.length];
+            for (int i = 0; i < vertices.length; i++) {
+                keys[i] = ((long) freq.get(vertices[i]) << 32) | (vertices[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(keys);
+            tokens[k] = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                tokens[k][i] = (int) keys[i];
+            }
+        });
+        return tokens;
+    }
+
+    /**
+     * 
+     * @param tokens vertices of each hyperedge, by increasing frequency
+     * @param s min overlap size
+     * @return inverted index of the prefixes: hyperedge position in the high 
+     * bits, vertex position in the low bits, in increasing order of hyperedge
+     */
+    private static Int2ObjectOpenHashMap<LongArrayList> getPrefixIndex(int[][] tokens, int s) {
+        Int2ObjectOpenHashMap<LongArrayList> prefixIndex = new Int2ObjectOpenHashMap<>();
+        for (int k = 0; k < tokens.length; k++) {
+            for (int i = 0; i < tokens[k].length - s + 1; i++) {
+                LongArrayList postings = prefixIndex.get(tokens[k][i]);
+                if (postings == null) {
+                    postings = new LongArrayList();
+                    prefixIndex.put(tokens[k][i], postings);
+                }
+                postings.add(((long) k << 32) | i);
+            }
+        }
+        return prefixIndex;
+    }
+
+    /**
+     * Find the hyperedges before k in sEdgeView with overlap not lower than s
+     * with the hyperedge in position k.
+     *
+     * @param graph hypergraph
+     * @param sEdgeView hyperedges with size not lower than s
+     * @param tokens vertices of each hyperedge, by increasing frequency
+     * @param prefixIndex inverted index of the prefixes
+     * @param k position of the hyperedge in sEdgeView
+     * @param s min overlap size
+     * @param maxS max overlap size
+     * @return for each pair found, the position in sEdgeView of the other
+     * hyperedge, and their overlap capped to maxS
+     */
+    private static List<int[]> probe(HyperGraph graph,
+            List<Integer> sEdgeView,
+            int[][] tokens,
+            Int2ObjectOpenHashMap<LongArrayList> prefixIndex,
+            int k,
+            int s,
+            int maxS) {
+        List<int[]> found = Lists.newArrayList();
+        IntOpenHashSet seen = new IntOpenHashSet();
+        int lenK = tokens[k].length;
+        int[] vk = graph.getEdge(sEdgeView.get(k)).getSortedVertices();
+        for (int i = 0; i < lenK - s + 1; i++) {
+            LongArrayList postings = prefixIndex.get(tokens[k][i]);
+            for (int p = 0; p < postings.size(); p++) {
+                int b = (int) (postings.getLong(p) >>> 32);
+                if (b >= k) {
+                    break;
+                }
+                if (!seen.add(b)) {
+                    continue;
+                }
+                // the first common vertex of the two prefixes is in positions i and j
+                int j = (int) postings.getLong(p);
+                if (1 + Math.min(lenK - i - 1, tokens[b].length - j - 1) < s) {
+                    continue;
+                }
+                int[] vb = graph.getEdge(sEdgeView.get(b)).getSortedVertices();
+                int overlap = Utils.cappedIntersectionSize(vk, vb, maxS);
+                if (overlap >= s) {
+                    found.add(new int[]{b, overlap});
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     *
+     * @param a sorted vertices of a hyperedge
+     * @param b sorted vertices of a hyperedge
+     * @param scanPos position of each vertex in the scan of the vertex index
+     * @param s min overlap size
+     * @return scan position of the s-th common vertex of a and b in the scan
+     */
+    private static int sthCommonVertex(int[] a, int[] b, Int2IntOpenHashMap scanPos, int s) {
+        IntArrayList common = new IntArrayList();
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                common.add(scanPos.get(a[i]));
+                i++;
+                j++;
+            }
+        }
+        int[] positions = common.toIntArray();
+        Arrays.sort(positions);
+        return positions[s - 1];
+    }
+
+}
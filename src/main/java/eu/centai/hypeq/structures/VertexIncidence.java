@@ -0,0 +1,239 @@
+package eu.centai.hypeq.structures;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compressed-sparse-row vertex-to-hyperedge incidence.
+ * The hyperedges including the vertex in row r are stored, in increasing order
+ * of id, in edges[offsets[r], offsets[r+1]).
+ *
+ * @author giulia
+ */
+public class VertexIncidence {
+
+    // distinct vertex ids, in increasing order
+    private final int[] vertexIds;
+    // vertex id -> row, null if the vertex ids are dense (row = id)
+    private final Int2IntOpenHashMap rows;
+    private final int[] offsets;
+    private final int[] edges;
+
+    private VertexIncidence(int[] vertexIds, Int2IntOpenHashMap rows, int[] offsets, int[] edges) {
+        this.vertexIds = vertexIds;
+        this.rows = rows;
+        this.offsets = offsets;
+        this.edges = edges;
+    }
+
+    /**
+     *
+     * @param vertexIds distinct vertex ids, in increasing order
+     * @param offsets start of the hyperedges of each vertex in edges
+     * @param edges hyperedges of each vertex
+     * @return incidence stored in the given arrays
+     */
+    public static VertexIncidence fromArrays(int[] vertexIds, int[] offsets, int[] edges) {
+        return new VertexIncidence(vertexIds, indexRows(vertexIds), offsets, edges);
+    }
+
+    /**
+     *
+     * @param vertexIds distinct vertex ids, in increasing order
+     * @return map from vertex id to row, or null if the ids are 0..V-1
+     */
+    private static Int2IntOpenHashMap indexRows(int[] vertexIds) {
+        // sorted distinct ids are dense iff the first is 0 and the last is V-1
+        if (vertexIds.length == 0 
+                || (vertexIds[0] == 0 && vertexIds[vertexIds.length - 1] == vertexIds.length - 1)) {
+            return null;
+        }
+        Int2IntOpenHashMap rows = new Int2IntOpenHashMap(vertexIds.length);
+        rows.defaultReturnValue(-1);
+        for (int r = 0; r < vertexIds.length; r++) {
+            rows.put(vertexIds[r], r);
+        }
+        return rows;
+    }
+
+    /**
+     *
+     * @param hyperedges hyperedges, whose ids coincide with their position in the list
+     * @return incidence between the vertices and the hyperedges
+     */
+    public static VertexIncidence fromHyperEdges(List<HyperEdge> hyperedges) {
+        IntOpenHashSet distinct = new IntOpenHashSet();
+        hyperedges.stream().forEach(edge -> {
+            for (int v : edge.getVertices()) {
+                distinct.add(v);
+            }
+        });
+        int[] vertexIds = distinct.toIntArray();
+        Arrays.sort(vertexIds);
+        Int2IntOpenHashMap rows = indexRows(vertexIds);
+        // count the memberships of each vertex
+        int[] offsets = new int[vertexIds.length + 1];
+        hyperedges.stream().forEach(edge -> {
+            for (int v : edge.getVertices()) {
+                offsets[getRow(rows, vertexIds.length, v) + 1]++;
+            }
+        });
+        for (int r = 0; r < vertexIds.length; r++) {
+            offsets[r + 1] += offsets[r];
+        }
+        int[] edges = new int[offsets[vertexIds.length]];
+        int[] pos = Arrays.copyOf(offsets, vertexIds.length);
+        for (HyperEdge edge : hyperedges) {
+            for (int v : edge.getVertices()) {
+                edges[pos[getRow(rows, vertexIds.length, v)]++] = edge.getId();
+            }
+        }
+        return new VertexIncidence(vertexIds, rows, offsets, edges);
+    }
+
+    /**
+     *
+     * @return number of distinct vertices
+     */
+    public int getNumVertices() {
+        return vertexIds.length;
+    }
+
+    /**
+     *
+     * @return distinct vertex ids, in increasing order
+     */
+    public int[] getVertexIds() {
+        return vertexIds;
+    }
+
+    /**
+     *
+     * @param v vertex id
+     * @return row of v, or -1 if v is not in any hyperedge
+     */
+    public int getRow(int v) {
+        return getRow(rows, vertexIds.length, v);
+    }
+
+    /**
+     *
+     * @param rows map from vertex id to row, or null if the ids are dense
+     * @param numVertices number of distinct vertices
+     * @param v vertex id
+     * @return row of v, or -1 if v is not in any hyperedge
+     */
+    private static int getRow(Int2IntOpenHashMap rows, int numVertices, int v) {
+        if (rows == null) {
+            return v >= 0 && v < numVertices ? v : -1;
+        }
+        return rows.get(v);
+    }
+
+    /**
+     *
+     * @return true if the vertex ids are 0..V-1, so that the row of each 
+     * vertex is its id
+     */
+    public boolean isDense() {
+        return rows == null;
+    }
+
+    /**
+     *
+     * @param v vertex id
+     * @return number of hyperedges including v
+     */
+    public int getNumHyperEdgesOf(int v) {
+        int r = getRow(v);
+        return r < 0 ? 0 : offsets[r + 1] - offsets[r];
+    }
+
+    /**
+     *
+     * @param r row
+     * @return position of the first hyperedge of row r in the edge array
+     */
+    public int getStart(int r) {
+        return offsets[r];
+    }
+
+    /**
+     *
+     * @param r row
+     * @return position after the last hyperedge of row r in the edge array
+     */
+    public int getEnd(int r) {
+        return offsets[r + 1];
+    }
+
+    /**
+     *
+     * @param i position in the edge array
+     * @return hyperedge stored in position i
+     */
+    public int getHyperEdge(int i) {
+        return edges[i];
+    }
+
+    /**
+     *
+     * @param v vertex id
+     * @return ids of the hyperedges including v
+     */
+    public Set<Integer> getHyperEdgesOf(int v) {
+        IntOpenHashSet memb = new IntOpenHashSet(getNumHyperEdgesOf(v));
+        int r = getRow(v);
+        if (r >= 0) {
+            for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                memb.add(edges[i]);
+            }
+        }
+        return memb;
+    }
+
+    /**
+     *
+     * @return for each vertex, the set of hyperedges including that vertex
+     */
+    public Map<Integer, Set<Integer>> toVertexMap() {
+        Map<Integer, Set<Integer>> vertexMap = Maps.newHashMap();
+        for (int r = 0; r < vertexIds.length; r++) {
+            Set<Integer> memb = Sets.newHashSet();
+            for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                memb.add(edges[i]);
+            }
+            vertexMap.put(vertexIds[r], memb);
+        }
+        return vertexMap;
+    }
+
+    /**
+     *
+     * @return for each vertex, the set of hyperedges including that vertex,
+     * stored in an array indexed by vertex id
+     * @throws IllegalStateException if the vertex ids are not dense
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DenseVertexMap toDenseVertexMap() {
+        if (!isDense()) {
+            throw new IllegalStateException("Vertex ids are not in the range 0..V-1.");
+        }
+        Set<Integer>[] memberships = new Set[vertexIds.length];
+        for (int r = 0; r < vertexIds.length; r++) {
+            Set<Integer> memb = Sets.newHashSet();
+            for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                memb.add(edges[i]);
+            }
+            memberships[r] = memb;
+        }
+        return new DenseVertexMap(memberships);
+    }
+
+}
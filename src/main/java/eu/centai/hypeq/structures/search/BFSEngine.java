@@ -0,0 +1,273 @@
+package eu.centai.hypeq.structures.search;
+
+import com.google.common.collect.Maps;
+import eu.centai.hypeq.structures.CSRAdjacency;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Level-synchronous BFS over the s-line graph stored in a CSR adjacency.
+ * The scratch arrays are reused across searches: a hyperedge is reached in the
+ * current search iff its stamp is equal to the current epoch, so that no
+ * clearing is needed between two searches.
+ * Each thread has its own engine, accessible through {@link #local(int)};
+ * the results of a search are valid until the next search of the same thread.
+ *
+ * @author giulia
+ */
+public class BFSEngine {
+
+    // a bottom-up step starts when the edges from the frontier are more than
+    // 1/ALPHA of the edges from the hyperedges not reached yet
+    public static final int ALPHA = 14;
+    // top-down steps start again when the frontier has less than 1/BETA of
+    // the hyperedges
+    public static final int BETA = 24;
+    private static final ThreadLocal<BFSEngine> ENGINES = ThreadLocal.withInitial(() -> new BFSEngine(0));
+
+    private int[] stamps;
+    private int[] distances;
+    // hyperedges reached, in order of discovery
+    private int[] queue;
+    private int numReached;
+    private int epoch;
+
+    public BFSEngine(int numEdges) {
+        this.stamps = new int[numEdges];
+        this.distances = new int[numEdges];
+        this.queue = new int[numEdges];
+    }
+
+    /**
+     *
+     * @param numEdges number of hyperedges in the graph
+     * @return engine of the current thread, able to handle numEdges hyperedges
+     */
+    public static BFSEngine local(int numEdges) {
+        BFSEngine engine = ENGINES.get();
+        engine.ensureCapacity(numEdges);
+        return engine;
+    }
+
+    private void ensureCapacity(int numEdges) {
+        if (stamps.length < numEdges) {
+            stamps = new int[numEdges];
+            distances = new int[numEdges];
+            queue = new int[numEdges];
+            epoch = 0;
+        }
+    }
+
+    private void nextEpoch() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 0;
+        }
+        epoch++;
+        numReached = 0;
+    }
+
+    private void reach(int e, int d) {
+        stamps[e] = epoch;
+        distances[e] = d;
+        queue[numReached++] = e;
+    }
+
+    /**
+     * Find the s-distances from start to all the hyperedges reachable from start.
+     *
+     * @param adj hyperedge adjacency
+     * @param start starting hyperedge
+     * @param s min overlap size
+     * @return number of hyperedges reached, start included
+     */
+    public int run(CSRAdjacency adj, int start, int s) {
+        nextEpoch();
+        reach(start, 0);
+        int head = 0;
+        while (head < numReached) {
+            int e = queue[head++];
+            int d = distances[e] + 1;
+            int end = adj.getSEnd(e, s);
+            for (int i = adj.getStart(e); i < end; i++) {
+                int ngb = adj.getTarget(i);
+                if (stamps[ngb] != epoch) {
+                    reach(ngb, d);
+                }
+            }
+        }
+        return numReached;
+    }
+
+    /**
+     * Find the s-distances from start to all the hyperedges reachable from
+     * start, switching between top-down and bottom-up steps.
+     * A top-down step scans the s-neighbours of the hyperedges in the
+     * frontier, while a bottom-up step scans the s-neighbours of each 
+     * hyperedge not reached yet, until it finds one in the frontier. 
+     * Bottom-up steps are cheaper for the large frontiers in the middle
+     * levels of dense s-line graphs.
+     * The distances found are the same as in {@link #run(CSRAdjacency, int, int)},
+     * while the hyperedges in each level can be discovered in a different 
+     * order.
+     * <p>
+     * Originally from:
+     * Beamer, Asanovic, and Patterson,
+     * Direction-optimizing breadth-first search,
+     * SC, 2012.
+     *
+     * @param adj hyperedge adjacency
+     * @param start starting hyperedge
+     * @param s min overlap size
+     * @return number of hyperedges reached, start included
+     */
+    public int runDirectionOptimizing(CSRAdjacency adj, int start, int s) {
+        nextEpoch();
+        reach(start, 0);
+        int numEdges = adj.getNumEdges();
+        // edges from the hyperedges not reached yet
+        long unexplored = adj.getNumSEntries(s);
+        boolean bottomUp = false;
+        // the frontier is queue[levelStart, levelEnd)
+        int levelStart = 0;
+        int d = 0;
+        while (levelStart < numReached) {
+            int levelEnd = numReached;
+            long frontierEdges = 0;
+            for (int f = levelStart; f < levelEnd; f++) {
+                frontierEdges += adj.getNumSNeighbours(queue[f], s);
+            }
+            unexplored -= frontierEdges;
+            if (bottomUp) {
+                bottomUp = levelEnd - levelStart >= numEdges / BETA;
+            } else {
+                bottomUp = frontierEdges > unexplored / ALPHA;
+            }
+            if (bottomUp) {
+                for (int e = 0; e < numEdges; e++) {
+                    if (stamps[e] == epoch) {
+                        continue;
+                    }
+                    int end = adj.getSEnd(e, s);
+                    for (int i = adj.getStart(e); i < end; i++) {
+                        int ngb = adj.getTarget(i);
+                        if (stamps[ngb] == epoch && distances[ngb] == d) {
+                            reach(e, d + 1);
+                            break;
+                        }
+                    }
+                }
+            } else {
+                for (int f = levelStart; f < levelEnd; f++) {
+                    int e = queue[f];
+                    int end = adj.getSEnd(e, s);
+                    for (int i = adj.getStart(e); i < end; i++) {
+                        int ngb = adj.getTarget(i);
+                        if (stamps[ngb] != epoch) {
+                            reach(ngb, d + 1);
+                        }
+                    }
+                }
+            }
+            levelStart = levelEnd;
+            d++;
+        }
+        return numReached;
+    }
+
+    /**
+     * Find the s-distances from start to the hyperedges reachable from start.
+     * The search stops as soon as maxReached hyperedges satisfying counted
+     * have been discovered.
+     *
+     * @param adj hyperedge adjacency
+     * @param start starting hyperedge
+     * @param s min overlap size
+     * @param counted hyperedges that count towards maxReached
+     * @param maxReached max number of counted hyperedges to discover
+     * @return number of hyperedges reached, start included
+     */
+    public int run(CSRAdjacency adj, int start, int s, IntPredicate counted, int maxReached) {
+        nextEpoch();
+        reach(start, 0);
+        int head = 0;
+        int reached = 0;
+        while (head < numReached && reached < maxReached) {
+            int e = queue[head++];
+            int d = distances[e] + 1;
+            int end = adj.getSEnd(e, s);
+            for (int i = adj.getStart(e); i < end; i++) {
+                int ngb = adj.getTarget(i);
+                if (stamps[ngb] != epoch) {
+                    reach(ngb, d);
+                    if (counted.test(ngb)) {
+                        reached++;
+                    }
+                }
+            }
+        }
+        return numReached;
+    }
+
+    /**
+     *
+     * @return number of hyperedges reached in the last search
+     */
+    public int getNumReached() {
+        return numReached;
+    }
+
+    /**
+     *
+     * @param i position
+     * @return i-th hyperedge reached in the last search
+     */
+    public int getReached(int i) {
+        return queue[i];
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return true if e has been reached in the last search
+     */
+    public boolean isReached(int e) {
+        return stamps[e] == epoch;
+    }
+
+    /**
+     *
+     * @param e hyperedge id
+     * @return s-distance of e from the start of the last search, or -1 if e
+     * has not been reached
+     */
+    public int getDistance(int e) {
+        return stamps[e] == epoch ? distances[e] : -1;
+    }
+
+    /**
+     *
+     * @return sum of the s-distances of the hyperedges reached in the last search
+     */
+    public long getDistanceSum() {
+        long sum = 0;
+        for (int i = 0; i < numReached; i++) {
+            sum += distances[queue[i]];
+        }
+        return sum;
+    }
+
+    /**
+     *
+     * @return s-distances of the hyperedges reached in the last search
+     */
+    public Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> result = Maps.newHashMapWithExpectedSize(numReached);
+        for (int i = 0; i < numReached; i++) {
+            result.put(queue[i], distances[queue[i]]);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,194 @@
+package eu.centai.hypeq.structures.search;
+
+import eu.centai.hypeq.structures.CSRAdjacency;
+import java.util.Arrays;
+
+/**
+ * Bidirectional BFS over the s-line graph stored in a CSR adjacency, to find
+ * a shortest s-path between two hyperedges.
+ * The two searches advance one level at a time, and each time the search with
+ * the smaller frontier is advanced. As the hyperedges reached by the two
+ * searches are disjoint until they meet, the first s-neighbour reached by the
+ * other search closes a shortest path, so the search can stop immediately.
+ * As in {@link BFSEngine}, the scratch arrays are reused across searches and
+ * each thread has its own instance, accessible through {@link #local(int)}.
+ *
+ * @author giulia
+ */
+public class BidirectionalBFS {
+
+    private static final ThreadLocal<BidirectionalBFS> SEARCHES = ThreadLocal.withInitial(() -> new BidirectionalBFS(0));
+
+    // searches from the source and from the destination
+    private Side fromSrc;
+    private Side fromDst;
+    private int epoch;
+
+    public BidirectionalBFS(int numEdges) {
+        this.fromSrc = new Side(numEdges);
+        this.fromDst = new Side(numEdges);
+    }
+
+    /**
+     * One of the two searches.
+     */
+    private static class Side {
+
+        private final int[] stamps;
+        // hyperedge from which each hyperedge has been reached; -1 for the root
+        private final int[] parents;
+        // hyperedges reached, in order of discovery
+        private final int[] queue;
+        // the frontier is queue[levelStart, levelEnd)
+        private int levelStart;
+        private int levelEnd;
+        private int numReached;
+
+        Side(int numEdges) {
+            this.stamps = new int[numEdges];
+            this.parents = new int[numEdges];
+            this.queue = new int[numEdges];
+        }
+
+        void start(int root, int epoch) {
+            levelStart = 0;
+            levelEnd = 1;
+            numReached = 0;
+            reach(root, -1, epoch);
+        }
+
+        void reach(int e, int parent, int epoch) {
+            stamps[e] = epoch;
+            parents[e] = parent;
+            queue[numReached++] = e;
+        }
+
+        boolean isReached(int e, int epoch) {
+            return stamps[e] == epoch;
+        }
+
+        int getFrontierSize() {
+            return levelEnd - levelStart;
+        }
+
+        /**
+         * Reach the s-neighbours of the hyperedges in the frontier.
+         *
+         * @param adj hyperedge adjacency
+         * @param s min overlap size
+         * @param other the other search
+         * @param epoch current epoch
+         * @return pair (hyperedge in the frontier, s-neighbour reached by the
+         * other search), packed with the first in the high bits; -1 if the
+         * two searches have not met
+         */
+        long expand(CSRAdjacency adj, int s, Side other, int epoch) {
+            for (int f = levelStart; f < levelEnd; f++) {
+                int e = queue[f];
+                int end = adj.getSEnd(e, s);
+                for (int i = adj.getStart(e); i < end; i++) {
+                    int ngb = adj.getTarget(i);
+                    if (other.isReached(ngb, epoch)) {
+                        return ((long) e << 32) | ngb;
+                    }
+                    if (!isReached(ngb, epoch)) {
+                        reach(ngb, e, epoch);
+                    }
+                }
+            }
+            levelStart = levelEnd;
+            levelEnd = numReached;
+            return -1;
+        }
+
+        /**
+         *
+         * @param e hyperedge reached
+         * @return number of hyperedges from the root to e, both included
+         */
+        int getDepth(int e) {
+            int depth = 1;
+            for (int p = parents[e]; p != -1; p = parents[p]) {
+                depth++;
+            }
+            return depth;
+        }
+    }
+
+    /**
+     *
+     * @param numEdges number of hyperedges in the graph
+     * @return instance of the current thread, able to handle numEdges hyperedges
+     */
+    public static BidirectionalBFS local(int numEdges) {
+        BidirectionalBFS bfs = SEARCHES.get();
+        if (bfs.fromSrc.stamps.length < numEdges) {
+            bfs = new BidirectionalBFS(numEdges);
+            SEARCHES.set(bfs);
+        }
+        return bfs;
+    }
+
+    private void nextEpoch() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(fromSrc.stamps, 0);
+            Arrays.fill(fromDst.stamps, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+
+    /**
+     * Find a shortest s-path between a and b.
+     *
+     * @param adj hyperedge adjacency
+     * @param a source hyperedge
+     * @param b destination hyperedge
+     * @param s min overlap between consecutive hyperedges
+     * @return hyperedges in a shortest s-path from a to b, in order; empty if
+     * b is not s-reachable from a
+     */
+    public int[] run(CSRAdjacency adj, int a, int b, int s) {
+        if (a == b) {
+            return new int[]{a};
+        }
+        nextEpoch();
+        fromSrc.start(a, epoch);
+        fromDst.start(b, epoch);
+        while (fromSrc.getFrontierSize() > 0 && fromDst.getFrontierSize() > 0) {
+            if (fromSrc.getFrontierSize() <= fromDst.getFrontierSize()) {
+                long meet = fromSrc.expand(adj, s, fromDst, epoch);
+                if (meet != -1) {
+                    return getPath((int) (meet >>> 32), (int) meet);
+                }
+            } else {
+                long meet = fromDst.expand(adj, s, fromSrc, epoch);
+                if (meet != -1) {
+                    return getPath((int) meet, (int) (meet >>> 32));
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     *
+     * @param lastSrc last hyperedge of the path reached from the source
+     * @param firstDst first hyperedge of the path reached from the destination
+     * @return hyperedges in the path from the source to the destination
+     */
+    private int[] getPath(int lastSrc, int firstDst) {
+        int depthSrc = fromSrc.getDepth(lastSrc);
+        int[] path = new int[depthSrc + fromDst.getDepth(firstDst)];
+        int pos = depthSrc - 1;
+        for (int e = lastSrc; e != -1; e = fromSrc.parents[e]) {
+            path[pos--] = e;
+        }
+        pos = depthSrc;
+        for (int e = firstDst; e != -1; e = fromDst.parents[e]) {
+            path[pos++] = e;
+        }
+        return path;
+    }
+
+}
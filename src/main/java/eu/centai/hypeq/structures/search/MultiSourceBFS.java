@@ -0,0 +1,193 @@
+package eu.centai.hypeq.structures.search;
+
+import eu.centai.hypeq.structures.CSRAdjacency;
+
+/**
+ * Bit-parallel multi-source BFS over the s-line graph stored in a CSR
+ * adjacency: up to 64 sources are searched in a single traversal, where the
+ * i-th bit of the word of a hyperedge refers to the i-th source.
+ * Each thread has its own instance, accessible through {@link #local(int)}.
+ *
+ * @author giulia
+ */
+public class MultiSourceBFS {
+
+    public static final int BATCH_SIZE = Long.SIZE;
+    private static final ThreadLocal<MultiSourceBFS> INSTANCES = ThreadLocal.withInitial(() -> new MultiSourceBFS(0));
+
+    // sources that have reached each hyperedge
+    private long[] seen;
+    // sources that reached each hyperedge in the current level
+    private long[] visit;
+    // sources that reach each hyperedge in the next level
+    private long[] visitNext;
+    // hyperedges in the current and next frontiers
+    private int[] frontier;
+    private int[] next;
+    // hyperedges reached by at least one source
+    private int[] touched;
+
+    /**
+     * Consumer of the s-distances found by the search.
+     */
+    public interface DistanceConsumer {
+
+        /**
+         *
+         * @param e hyperedge reached
+         * @param source position of the source in the batch
+         * @param distance s-distance between the source and e
+         */
+        void accept(int e, int source, int distance);
+    }
+
+    public MultiSourceBFS(int numEdges) {
+        this.seen = new long[numEdges];
+        this.visit = new long[numEdges];
+        this.visitNext = new long[numEdges];
+        this.frontier = new int[numEdges];
+        this.next = new int[numEdges];
+        this.touched = new int[numEdges];
+    }
+
+    /**
+     *
+     * @param numEdges number of hyperedges in the graph
+     * @return instance of the current thread, able to handle numEdges hyperedges
+     */
+    public static MultiSourceBFS local(int numEdges) {
+        MultiSourceBFS bfs = INSTANCES.get();
+        if (bfs.seen.length < numEdges) {
+            bfs = new MultiSourceBFS(numEdges);
+            INSTANCES.set(bfs);
+        }
+        return bfs;
+    }
+
+    /**
+     * Find the s-distances from a batch of sources to all the hyperedges
+     * reachable from them.
+     * If directionOptimizing is true, the search switches to bottom-up steps
+     * when the frontier is large, as in 
+     * {@link BFSEngine#runDirectionOptimizing(CSRAdjacency, int, int)}: each 
+     * hyperedge not reached yet by all the sources collects the sources that 
+     * reached its s-neighbours in the current level.
+     *
+     * @param adj hyperedge adjacency
+     * @param sources hyperedge ids of the sources
+     * @param from position of the first source of the batch
+     * @param to position after the last source of the batch (at most
+     * BATCH_SIZE sources)
+     * @param s min overlap size
+     * @param directionOptimizing whether the search can use bottom-up steps
+     * @param consumer receives each triple (hyperedge, source, distance)
+     */
+    public void run(CSRAdjacency adj, 
+            int[] sources, 
+            int from, 
+            int to, 
+            int s, 
+            boolean directionOptimizing, 
+            DistanceConsumer consumer) {
+        int numFrontier = 0;
+        int numTouched = 0;
+        int numEdges = adj.getNumEdges();
+        // sources of the batch
+        long all = to - from == BATCH_SIZE ? -1L : (1L << (to - from)) - 1;
+        // edges from the hyperedges not reached yet by all the sources
+        long unexplored = directionOptimizing ? adj.getNumSEntries(s) : 0;
+        boolean bottomUp = false;
+        for (int i = from; i < to; i++) {
+            int src = sources[i];
+            long bit = 1L << (i - from);
+            if (seen[src] == 0) {
+                touched[numTouched++] = src;
+                frontier[numFrontier++] = src;
+            }
+            seen[src] |= bit;
+            if (directionOptimizing && seen[src] == all) {
+                unexplored -= adj.getNumSNeighbours(src, s);
+            }
+            visit[src] |= bit;
+            consumer.accept(src, i - from, 0);
+        }
+        int level = 0;
+        while (numFrontier > 0) {
+            level++;
+            int numNext = 0;
+            if (directionOptimizing) {
+                long frontierEdges = 0;
+                for (int f = 0; f < numFrontier; f++) {
+                    frontierEdges += adj.getNumSNeighbours(frontier[f], s);
+                }
+                if (bottomUp) {
+                    bottomUp = numFrontier >= numEdges / BFSEngine.BETA;
+                } else {
+                    bottomUp = frontierEdges > unexplored / BFSEngine.ALPHA;
+                }
+            }
+            if (bottomUp) {
+                for (int e = 0; e < numEdges; e++) {
+                    long missing = all & ~seen[e];
+                    if (missing == 0) {
+                        continue;
+                    }
+                    long found = 0;
+                    int end = adj.getSEnd(e, s);
+                    for (int i = adj.getStart(e); i < end && found != missing; i++) {
+                        found |= visit[adj.getTarget(i)] & missing;
+                    }
+                    if (found != 0) {
+                        next[numNext++] = e;
+                        visitNext[e] = found;
+                    }
+                }
+            } else {
+                for (int f = 0; f < numFrontier; f++) {
+                    int e = frontier[f];
+                    long bits = visit[e];
+                    int end = adj.getSEnd(e, s);
+                    for (int i = adj.getStart(e); i < end; i++) {
+                        int ngb = adj.getTarget(i);
+                        long newBits = bits & ~seen[ngb];
+                        if (newBits != 0) {
+                            if (visitNext[ngb] == 0) {
+                                next[numNext++] = ngb;
+                            }
+                            visitNext[ngb] |= newBits;
+                        }
+                    }
+                }
+            }
+            for (int f = 0; f < numFrontier; f++) {
+                visit[frontier[f]] = 0;
+            }
+            for (int f = 0; f < numNext; f++) {
+                int e = next[f];
+                long newBits = visitNext[e];
+                if (seen[e] == 0) {
+                    touched[numTouched++] = e;
+                }
+                seen[e] |= newBits;
+                if (directionOptimizing && seen[e] == all) {
+                    unexplored -= adj.getNumSNeighbours(e, s);
+                }
+                visit[e] = newBits;
+                visitNext[e] = 0;
+                while (newBits != 0) {
+                    consumer.accept(e, Long.numberOfTrailingZeros(newBits), level);
+                    newBits &= newBits - 1;
+                }
+            }
+            int[] tmp = frontier;
+            frontier = next;
+            next = tmp;
+            numFrontier = numNext;
+        }
+        // reset the scratch arrays for the next batch
+        for (int t = 0; t < numTouched; t++) {
+            seen[touched[t]] = 0;
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package eu.centai.hypeq.test;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import eu.centai.hyped.cc.ConcurrentUnionFind;
 import eu.centai.hyped.cc.WQUFPC;
 import eu.centai.hypeq.structures.HyperEdge;
 import eu.centai.hypeq.structures.HyperGraph;
@@ -31,7 +32,7 @@ public class CompareCCStrategies {
         LineGraph lg = new LineGraph(edges);
         for (int s = 1; s <= maxS; s++) {
             LineGraph sg = lg.getProjection(s);
-            WQUFPC uf = new WQUFPC(sg.numberOfNodes());
+            ConcurrentUnionFind uf = new ConcurrentUnionFind(sg.numberOfNodes());
             uf.findCCsLineGraph(sg);
         }
     }
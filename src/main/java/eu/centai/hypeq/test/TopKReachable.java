@@ -54,7 +54,7 @@ public class TopKReachable {
             if (Settings.kind.equalsIgnoreCase("vertex")) {
                 cands = Lists.newArrayList(vMap.keySet());
             } else {
-                cands = Lists.newArrayList(oracle.getCCsMemberships().get(1).keySet());
+                cands = oracle.getHyperEdgesInSCCs(1);
             }
             queries = Utils.selectItems(Settings.numQueries, cands, rnd);
         }
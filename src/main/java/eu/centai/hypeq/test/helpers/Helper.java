@@ -4,6 +4,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import eu.centai.hyped.cc.ConnectedComponents;
+import eu.centai.hypeq.oracle.structures.DistanceBatch;
 import eu.centai.hypeq.oracle.structures.DistanceOracle;
 import eu.centai.hypeq.oracle.structures.DistanceProfile;
 import eu.centai.hypeq.structures.HyperGraph;
@@ -15,6 +16,7 @@ import gr.james.sampling.LiLSampling;
 import gr.james.sampling.RandomSamplingCollector;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -47,33 +49,18 @@ public class Helper {
             DistanceOracle oracle,
             Collection<Pair<Integer, Integer>> sample) throws IOException {
         
-        Map<Pair<Integer, Integer>, DistanceProfile> allApproxHDist = sample.parallelStream()
-                .map(entry -> {
-                    int u = entry.getValue0();
-                    int v = entry.getValue1();
-                    int maxS = Settings.maxS;
-                    if (Settings.kind.equalsIgnoreCase("edge")) {
-                        maxS = Math.min(Math.min(oracle.getMaxHEsMembership(u), oracle.getMaxHEsMembership(v)), Settings.maxS);
-                    } else if (Settings.kind.equalsIgnoreCase("vertex")) {
-                        int s1 = oracle.getSHyperEdgesOf(vMap, u, 1)
-                                .stream()
-                                .mapToInt(e -> oracle.getMaxHEsMembership(e)).max().orElse(0);
-                        int s2 = oracle.getSHyperEdgesOf(vMap, v, 1)
-                                .stream()
-                                .mapToInt(e -> oracle.getMaxHEsMembership(e)).max().orElse(0);
-                        maxS = Math.min(s1, s2);
-                    } else if (Settings.kind.equalsIgnoreCase("both")) {
-                        int s1 = oracle.getSHyperEdgesOf(vMap, u, 1)
-                                .stream()
-                                .mapToInt(e -> oracle.getMaxHEsMembership(e)).max().orElse(0);
-                        int s2 = oracle.getMaxHEsMembership(v);
-                        maxS = Math.min(s1, s2);
-                    }
-                    DistanceProfile dp = new DistanceProfile(u, v);
-                    dp.createDistanceProfile(vMap, oracle, maxS, Settings.lb, Settings.kind, false);
-                    return new Pair<Pair<Integer, Integer>, DistanceProfile>(entry, dp);
-                })
-                .collect(Collectors.toMap(e -> e.getValue0(), e -> e.getValue1()));
+        int[] sources = new int[sample.size()];
+        int[] destinations = new int[sample.size()];
+        int i = 0;
+        for (Pair<Integer, Integer> entry : sample) {
+            sources[i] = entry.getValue0();
+            destinations[i++] = entry.getValue1();
+        }
+        DistanceBatch batch = oracle.getApproxDistances(vMap, sources, destinations, Settings.maxS, Settings.lb, Settings.kind);
+        Map<Pair<Integer, Integer>, DistanceProfile> allApproxHDist = Maps.newHashMapWithExpectedSize(batch.size());
+        for (i = 0; i < batch.size(); i++) {
+            allApproxHDist.put(new Pair<>(sources[i], destinations[i]), batch.toProfile(i));
+        }
         return allApproxHDist;
     }
     
@@ -395,21 +382,37 @@ public class Helper {
         ConnectedComponents CCS;
         boolean computeFromScratch = !Settings.store;
         if (Settings.store) {
+            CCS = null;
             try {
-                oracle = Reader.readOracle();
-            } catch (FileNotFoundException ex) {
+                if (Settings.mappedOracle) {
+                    oracle = Reader.mapOracle();
+                } else if (Settings.lazyOracle) {
+                    CCS = Reader.readConnectedComponents();
+                    oracle = Reader.openOracle(CCS);
+                } else {
+                    oracle = Reader.readOracle();
+                }
+            } catch (FileNotFoundException | NoSuchFileException ex) {
                 computeFromScratch = true;
                 System.out.println("oracle file not found.");
+            } catch (IOException ex) {
+                // the file exists but cannot be read, e.g. written in another format
+                computeFromScratch = true;
+                System.out.println("oracle file not readable: " + ex.getMessage());
             }
              try {
                 // initialize structures
-                CCS = Reader.readConnectedComponents();
+                if (CCS == null) {
+                    CCS = Reader.readConnectedComponents();
+                }
                 if (!Settings.isApproximate) {
                     graph.initializeNeighboursFromCandidates(CCS, maxD, Settings.lb);
                 }
                 CCS.clearStructures();
             } catch (FileNotFoundException ex) {
                 System.out.println("connected components file not found.");
+            } catch (IOException ex) {
+                System.out.println(ex.getMessage());
             }
         }
         StopWatch watch = new StopWatch();
@@ -429,7 +432,15 @@ public class Helper {
             creationTime = watch.getElapsedTime();
             System.out.println("oracle created in (ms) " + creationTime);
             if (Settings.store) {
-                Writer.writeOracle(oracle);
+                if (Settings.mappedOracle) {
+                    Writer.writeMappedOracle(oracle);
+                } else if (Settings.lazyOracle) {
+                    for (int s = 1; s <= oracle.getNumSOracles(); s++) {
+                        Writer.writeSOracle(oracle.getOracle(s), s);
+                    }
+                } else {
+                    Writer.writeOracle(oracle);
+                }
                 System.out.println("oracle written on disk.");
             }
         }
@@ -35,6 +35,20 @@ public class CMDLParser {
             Settings.queryFile = value;
         } else if (key.compareToIgnoreCase("store") == 0) {
             Settings.store = Boolean.valueOf(value);
+        } else if (key.compareToIgnoreCase("mappedOracle") == 0) {
+            Settings.mappedOracle = Boolean.valueOf(value);
+        } else if (key.compareToIgnoreCase("lazyOracle") == 0) {
+            Settings.lazyOracle = Boolean.valueOf(value);
+        } else if (key.compareToIgnoreCase("maxLoadedOracles") == 0) {
+            Settings.maxLoadedOracles = Integer.parseInt(value);
+        } else if (key.compareToIgnoreCase("snapshot") == 0) {
+            Settings.snapshot = Boolean.valueOf(value);
+        } else if (key.compareToIgnoreCase("denseVertices") == 0) {
+            Settings.denseVertices = Boolean.valueOf(value);
+        } else if (key.compareToIgnoreCase("singlePassCCs") == 0) {
+            Settings.singlePassCCs = Boolean.valueOf(value);
+        } else if (key.compareToIgnoreCase("directionOptimizingMaxS") == 0) {
+            Settings.directionOptimizingMaxS = Integer.parseInt(value);
         } else if (key.compareToIgnoreCase("numLandmarks") == 0) {
             Settings.numLandmarks = Integer.parseInt(value);
         } else if (key.compareToIgnoreCase("landmarkSelection") == 0) {
@@ -0,0 +1,110 @@
+package eu.centai.hypeq.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes little-endian columns of binary files that are memory-mapped when
+ * read; each column starts at a multiple of 8 bytes.
+ *
+ * @author giulia
+ */
+public class ColumnWriter {
+
+    private final FileChannel out;
+    private final ByteBuffer buf = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    // bytes already written to the channel
+    private long position;
+
+    public ColumnWriter(FileChannel out) {
+        this.out = out;
+    }
+
+    /**
+     *
+     * @return number of bytes written so far
+     */
+    public long position() {
+        return position + buf.position();
+    }
+
+    /**
+     *
+     * @param src bytes to write as they are
+     * @throws IOException
+     */
+    public void write(ByteBuffer src) throws IOException {
+        flush();
+        while (src.hasRemaining()) {
+            position += out.write(src);
+        }
+    }
+
+    public void writeInts(IntBuffer src) throws IOException {
+        for (int i = 0; i < src.limit(); i++) {
+            ensure(4);
+            buf.putInt(src.get(i));
+        }
+        pad();
+    }
+
+    public void writeInts(int[] src) throws IOException {
+        writeInts(IntBuffer.wrap(src));
+    }
+
+    public void writeShorts(ShortBuffer src) throws IOException {
+        for (int i = 0; i < src.limit(); i++) {
+            ensure(2);
+            buf.putShort(src.get(i));
+        }
+        pad();
+    }
+
+    public void writeBytes(ByteBuffer src) throws IOException {
+        for (int i = 0; i < src.limit(); i++) {
+            ensure(1);
+            buf.put(src.get(i));
+        }
+        pad();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buf.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void pad() throws IOException {
+        while ((position() & 7) != 0) {
+            ensure(1);
+            buf.put((byte) 0);
+        }
+    }
+
+    /**
+     * Write the buffered bytes to the channel.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            position += out.write(buf);
+        }
+        buf.clear();
+    }
+
+    /**
+     *
+     * @param pos position in the file
+     * @return first position not lower than pos that is a multiple of 8
+     */
+    public static long align(long pos) {
+        return (pos + 7) & ~7L;
+    }
+
+}
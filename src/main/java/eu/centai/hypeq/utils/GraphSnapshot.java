@@ -0,0 +1,304 @@
+package eu.centai.hypeq.utils;
+
+import eu.centai.hypeq.structures.CSRAdjacency;
+import eu.centai.hypeq.structures.HyperGraph;
+import eu.centai.hypeq.structures.VertexIncidence;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Binary snapshot of a hypergraph file, memory-mapped when loaded so that
+ * the textual file does not need to be parsed again.
+ * The snapshot stores the sorted distinct vertex ids (which remap each vertex
+ * to its position), the vertices of each hyperedge as positions in file
+ * order, the incidence between vertices and hyperedges, and optionally the
+ * overlaps between all the hyperedges in CSR format.
+ * All the values are little-endian, and each column starts at a multiple of
+ * 8 bytes.
+ *
+ * @author giulia
+ */
+public class GraphSnapshot {
+
+    public static final String EXTENSION = ".snap";
+    private static final int MAGIC = 0x48534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    // header flags
+    private static final int HAS_OVERLAPS = 1;
+
+    // distinct vertex ids, in increasing order
+    private final int[] vertexIds;
+    // vertices of each hyperedge, as positions in vertexIds
+    private final int[] edgeOffsets;
+    private final int[] edgeVertices;
+    private final int[] incOffsets;
+    private final int[] incEdges;
+    private final CSRAdjacency adjacency;
+
+    private GraphSnapshot(int[] vertexIds, int[] edgeOffsets, int[] edgeVertices,
+            int[] incOffsets, int[] incEdges, CSRAdjacency adjacency) {
+        this.vertexIds = vertexIds;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeVertices = edgeVertices;
+        this.incOffsets = incOffsets;
+        this.incEdges = incEdges;
+        this.adjacency = adjacency;
+    }
+
+    /**
+     *
+     * @param fileName path of the hypergraph file
+     * @return path of the snapshot of the hypergraph file
+     */
+    public static String getPath(String fileName) {
+        return fileName + EXTENSION;
+    }
+
+    /**
+     * Write the snapshot of a hypergraph file. The snapshot is written to a
+     * temporary file, which is then atomically renamed, so that a run that
+     * crashes, or another run writing the same snapshot, never leaves a 
+     * partial snapshot.
+     *
+     * @param fileName path of the hypergraph file
+     * @param lines vertex ids of each hyperedge, in file order, already 
+     * remapped to dense ids if VertexRemap is active
+     * @param graph hypergraph built from lines
+     * @param withOverlaps whether the overlaps between all the hyperedges
+     * have been computed and should be stored
+     * @throws IOException
+     */
+    public static void write(String fileName, int[][] lines, HyperGraph graph, boolean withOverlaps) throws IOException {
+        VertexIncidence incidence = graph.getIncidence();
+        CSRAdjacency adj = graph.getAdjacency();
+        int numEdges = lines.length;
+        int numVertices = incidence.getNumVertices();
+        // dense ids are already the positions of the vertices
+        boolean remapped = VertexRemap.isActive();
+        int[] edgeOffsets = new int[numEdges + 1];
+        for (int e = 0; e < numEdges; e++) {
+            edgeOffsets[e + 1] = edgeOffsets[e] + lines[e].length;
+        }
+        int[] incOffsets = new int[numVertices + 1];
+        for (int r = 0; r < numVertices; r++) {
+            incOffsets[r + 1] = incidence.getEnd(r);
+        }
+        Path snap = Paths.get(getPath(fileName)).toAbsolutePath();
+        Path tmp = Files.createTempFile(snap.getParent(), snap.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(tmp,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ColumnWriter writer = new ColumnWriter(out);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(numEdges)
+                    .putInt(numVertices)
+                    .putInt(graph.getDimension())
+                    .putInt(withOverlaps ? HAS_OVERLAPS : 0)
+                    .putLong(edgeOffsets[numEdges])
+                    .putLong(incOffsets[numVertices])
+                    .putLong(withOverlaps ? adj.getNumEntries() : 0);
+            header.flip();
+            writer.write(header);
+            writer.writeInts(remapped ? VertexRemap.getVertexIds() : incidence.getVertexIds());
+            writer.writeInts(edgeOffsets);
+            int[] positions = new int[edgeOffsets[numEdges]];
+            for (int e = 0; e < numEdges; e++) {
+                for (int i = 0; i < lines[e].length; i++) {
+                    positions[edgeOffsets[e] + i] = remapped ? lines[e][i] : incidence.getRow(lines[e][i]);
+                }
+            }
+            writer.writeInts(positions);
+            writer.writeInts(incOffsets);
+            int[] incEdges = new int[incOffsets[numVertices]];
+            for (int i = 0; i < incEdges.length; i++) {
+                incEdges[i] = incidence.getHyperEdge(i);
+            }
+            writer.writeInts(incEdges);
+            if (withOverlaps) {
+                int[] adjOffsets = new int[numEdges + 1];
+                for (int e = 0; e < numEdges; e++) {
+                    adjOffsets[e + 1] = adj.getEnd(e);
+                }
+                writer.writeInts(adjOffsets);
+                int[] targets = new int[adj.getNumEntries()];
+                short[] overlaps = new short[adj.getNumEntries()];
+                for (int i = 0; i < targets.length; i++) {
+                    targets[i] = adj.getTarget(i);
+                    overlaps[i] = (short) adj.getOverlap(i);
+                }
+                writer.writeInts(targets);
+                writer.writeShorts(ShortBuffer.wrap(overlaps));
+            }
+            writer.flush();
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        Files.move(tmp, snap, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Load the snapshot of a hypergraph file, if it exists and it is not
+     * older than the hypergraph file. A snapshot whose size does not match 
+     * the lengths in its header is ignored, so that the hypergraph file is 
+     * parsed again.
+     *
+     * @param fileName path of the hypergraph file
+     * @return snapshot of the hypergraph file, or null if not available
+     * @throws IOException
+     */
+    public static GraphSnapshot load(String fileName) throws IOException {
+        File snap = new File(getPath(fileName));
+        if (!snap.exists() || snap.lastModified() < new File(fileName).lastModified()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snap.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return null;
+            }
+            int numEdges = header.getInt(8);
+            int numVertices = header.getInt(12);
+            boolean withOverlaps = (header.getInt(20) & HAS_OVERLAPS) != 0;
+            long[] counts = {numEdges, numVertices, header.getLong(24), header.getLong(32), header.getLong(40)};
+            for (long count : counts) {
+                if (count < 0 || count >= Integer.MAX_VALUE) {
+                    return null;
+                }
+            }
+            int numValues = (int) counts[2];
+            int numMemberships = (int) counts[3];
+            int numEntries = (int) counts[4];
+            // the columns must end exactly at the end of the file
+            long size = HEADER_SIZE;
+            for (long n : new long[]{numVertices, numEdges + 1, numValues, numVertices + 1, numMemberships}) {
+                size = ColumnWriter.align(size + 4L * n);
+            }
+            if (withOverlaps) {
+                size = ColumnWriter.align(size + 4L * (numEdges + 1));
+                size = ColumnWriter.align(size + 4L * numEntries);
+                size = ColumnWriter.align(size + 2L * numEntries);
+            }
+            if (size != channel.size()) {
+                return null;
+            }
+            long[] pos = {HEADER_SIZE};
+            int[] vertexIds = readInts(channel, pos, numVertices);
+            int[] edgeOffsets = readInts(channel, pos, numEdges + 1);
+            int[] edgeVertices = readInts(channel, pos, numValues);
+            int[] incOffsets = readInts(channel, pos, numVertices + 1);
+            int[] incEdges = readInts(channel, pos, numMemberships);
+            CSRAdjacency adj = null;
+            if (withOverlaps) {
+                int[] adjOffsets = readInts(channel, pos, numEdges + 1);
+                int[] targets = readInts(channel, pos, numEntries);
+                short[] overlaps = new short[numEntries];
+                channel.map(FileChannel.MapMode.READ_ONLY, pos[0], 2L * numEntries)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asShortBuffer()
+                        .get(overlaps);
+                adj = new CSRAdjacency(adjOffsets, targets, overlaps);
+            }
+            return new GraphSnapshot(vertexIds, edgeOffsets, edgeVertices, incOffsets, incEdges, adj);
+        }
+    }
+
+    /**
+     * Read a column of ints, and move pos to the start of the next column.
+     *
+     * @param channel snapshot file
+     * @param pos position of the column
+     * @param n number of ints in the column
+     * @return values in the column
+     * @throws IOException
+     */
+    private static int[] readInts(FileChannel channel, long[] pos, int n) throws IOException {
+        int[] values = new int[n];
+        channel.map(FileChannel.MapMode.READ_ONLY, pos[0], 4L * n)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer()
+                .get(values);
+        pos[0] = ColumnWriter.align(pos[0] + 4L * n);
+        return values;
+    }
+
+    /**
+     *
+     * @return vertex ids of each hyperedge, in file order
+     */
+    public int[][] getLines() {
+        int[][] lines = new int[edgeOffsets.length - 1][];
+        for (int e = 0; e < lines.length; e++) {
+            lines[e] = new int[edgeOffsets[e + 1] - edgeOffsets[e]];
+            for (int i = 0; i < lines[e].length; i++) {
+                lines[e][i] = vertexIds[edgeVertices[edgeOffsets[e] + i]];
+            }
+        }
+        return lines;
+    }
+
+    /**
+     *
+     * @return dense vertex ids of each hyperedge, in file order
+     */
+    public int[][] getDenseLines() {
+        int[][] lines = new int[edgeOffsets.length - 1][];
+        for (int e = 0; e < lines.length; e++) {
+            lines[e] = Arrays.copyOfRange(edgeVertices, edgeOffsets[e], edgeOffsets[e + 1]);
+        }
+        return lines;
+    }
+
+    /**
+     *
+     * @return distinct vertex ids, in increasing order
+     */
+    public int[] getVertexIds() {
+        return vertexIds;
+    }
+
+    /**
+     *
+     * @param dense whether the vertices are identified by their dense ids
+     * @return incidence between the vertices and the hyperedges
+     */
+    public VertexIncidence getIncidence(boolean dense) {
+        int[] ids = dense ? IntStream.range(0, vertexIds.length).toArray() : vertexIds;
+        return VertexIncidence.fromArrays(ids, incOffsets, incEdges);
+    }
+
+    /**
+     *
+     * @return true if the overlaps between all the hyperedges are stored
+     */
+    public boolean hasOverlaps() {
+        return adjacency != null;
+    }
+
+    /**
+     *
+     * @return overlaps between all the hyperedges, or null if not stored
+     */
+    public CSRAdjacency getAdjacency() {
+        return adjacency;
+    }
+
+}
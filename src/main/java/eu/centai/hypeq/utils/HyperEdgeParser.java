@@ -0,0 +1,185 @@
+package eu.centai.hypeq.utils;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel parser of hypergraph files, where each line stores the
+ * space-separated vertex ids of a hyperedge.
+ * The file is memory-mapped and split into chunks, which are parsed in
+ * parallel without creating any String; each chunk parses the lines starting
+ * within it, and the hyperedges are numbered in file order.
+ * Each chunk is mapped in a single buffer, so chunks are smaller than 1 GB
+ * and a line cannot be longer than the remaining part of the buffer.
+ *
+ * @author giulia
+ */
+public class HyperEdgeParser {
+
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    // leaves at least 1 GB in the mapped buffer for the last line of the chunk
+    private static final long MAX_CHUNK_SIZE = 1 << 30;
+
+    /**
+     * Values and line ends parsed from a chunk of the file.
+     */
+    private static class Chunk {
+
+        private final IntArrayList values = new IntArrayList();
+        // position after the last value of each line
+        private final IntArrayList lineEnds = new IntArrayList();
+    }
+
+    /**
+     *
+     * @param fileName path of input file
+     * @return vertex ids of each hyperedge, in file order
+     * @throws IOException
+     */
+    public static int[][] parse(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int numChunks = (int) Math.max((size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE,
+                    Math.max(1, Math.min(size / MIN_CHUNK_SIZE, 4L * ForkJoinPool.getCommonPoolParallelism())));
+            long chunkSize = (size + numChunks - 1) / numChunks;
+            Chunk[] chunks = new Chunk[numChunks];
+            try {
+                IntStream.range(0, numChunks).parallel().forEach(k -> {
+                    try {
+                        chunks[k] = parseChunk(channel, k * chunkSize, Math.min(size, (k + 1) * chunkSize), size);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            // number the hyperedges in file order
+            int[] firstEdge = new int[numChunks + 1];
+            for (int k = 0; k < numChunks; k++) {
+                firstEdge[k + 1] = firstEdge[k] + chunks[k].lineEnds.size();
+            }
+            int[][] edges = new int[firstEdge[numChunks]][];
+            IntStream.range(0, numChunks).parallel().forEach(k -> {
+                Chunk chunk = chunks[k];
+                int start = 0;
+                for (int l = 0; l < chunk.lineEnds.size(); l++) {
+                    int end = chunk.lineEnds.getInt(l);
+                    edges[firstEdge[k] + l] = copy(chunk.values, start, end);
+                    start = end;
+                }
+            });
+            return edges;
+        }
+    }
+
+    /**
+     *
+     * @param values parsed values
+     * @param start first position
+     * @param end position after the last position
+     * @return values in [start, end)
+     */
+    private static int[] copy(IntArrayList values, int start, int end) {
+        int[] line = new int[end - start];
+        values.getElements(start, line, 0, line.length);
+        return line;
+    }
+
+    /**
+     * Parse the lines starting in [from, to).
+     *
+     * @param channel input file
+     * @param from first position of the chunk
+     * @param to position after the last position of the chunk
+     * @param size size of the file
+     * @return values and line ends of the chunk
+     * @throws IOException if the file is malformed or a line does not fit in
+     * the mapped buffer
+     */
+    private static Chunk parseChunk(FileChannel channel, long from, long to, long size) throws IOException {
+        Chunk chunk = new Chunk();
+        // start from the previous byte, to check whether a line starts in from
+        long base = from == 0 ? 0 : from - 1;
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, base,
+                Math.min(size - base, Integer.MAX_VALUE));
+        int limit = buf.limit();
+        // whether the buffer ends before the file
+        boolean truncated = base + limit < size;
+        int end = (int) (to - base);
+        int pos = 0;
+        if (from > 0) {
+            // skip the line started in the previous chunk
+            while (pos < limit && buf.get(pos) != '\n') {
+                pos++;
+            }
+            if (pos == limit && truncated) {
+                throw new IOException("line too long at byte " + base + ".");
+            }
+            pos++;
+        }
+        while (pos < end && pos < limit) {
+            int numValues = chunk.values.size();
+            long lineStart = base + pos;
+            long value = 0;
+            boolean inNumber = false;
+            boolean negative = false;
+            boolean ended = false;
+            while (pos < limit) {
+                byte b = buf.get(pos++);
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    if (value > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+                        throw malformed(base + pos - 1);
+                    }
+                    inNumber = true;
+                } else if (b == '-' && !inNumber && !negative) {
+                    negative = true;
+                } else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    if (negative && !inNumber) {
+                        throw malformed(base + pos - 1);
+                    }
+                    if (inNumber) {
+                        chunk.values.add((int) (negative ? -value : value));
+                    }
+                    value = 0;
+                    inNumber = false;
+                    negative = false;
+                    if (b == '\n') {
+                        ended = true;
+                        break;
+                    }
+                } else {
+                    throw malformed(base + pos - 1);
+                }
+            }
+            if (!ended && truncated) {
+                throw new IOException("line too long at byte " + lineStart + ".");
+            }
+            // last line without newline
+            if (negative && !inNumber) {
+                throw malformed(base + pos - 1);
+            }
+            if (inNumber) {
+                chunk.values.add((int) (negative ? -value : value));
+            }
+            // blank lines do not define hyperedges
+            if (chunk.values.size() > numValues) {
+                chunk.lineEnds.add(chunk.values.size());
+            }
+        }
+        return chunk;
+    }
+
+    private static IOException malformed(long pos) {
+        return new IOException("malformed hypergraph file at byte " + pos + ".");
+    }
+
+}
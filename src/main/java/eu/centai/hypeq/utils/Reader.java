@@ -1,6 +1,7 @@
 package eu.centai.hypeq.utils;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.io.Input;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -9,20 +10,22 @@ import eu.centai.hyped.cc.CCSerializer;
 import eu.centai.hyped.cc.ConnectedComponents;
 import eu.centai.hypeq.oracle.structures.DistanceOracle;
 import eu.centai.hypeq.oracle.structures.DistanceProfile;
+import eu.centai.hypeq.oracle.structures.OracleFile;
 import eu.centai.hypeq.oracle.structures.OracleSerializer;
 import eu.centai.hypeq.oracle.structures.SDistanceOracle;
 import eu.centai.hypeq.oracle.structures.SOracleSerializer;
+import eu.centai.hypeq.structures.DenseVertexMap;
 import eu.centai.hypeq.structures.HyperEdge;
 import eu.centai.hypeq.structures.HyperGraph;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.javatuples.Pair;
 import org.javatuples.Triplet;
 
@@ -42,23 +45,81 @@ public class Reader {
      * @throws IOException 
      */
     public static HyperGraph loadGraph(String fileName, boolean computeNeighs) throws IOException {
-        final BufferedReader rows = new BufferedReader(new FileReader(fileName));
-        List<HyperEdge> edges = Lists.newArrayList();
-        String line;
-        int counter = 0;
-
-        while ((line = rows.readLine()) != null) {
-            String[] parts = line.split(" ");
-            Set<Integer> tmp = Sets.newHashSet();
-            for (String p : parts) {
-                tmp.add(Integer.parseInt(p));
+        if (!Settings.snapshot) {
+            return new HyperGraph(toHyperEdges(parseLines(fileName)), computeNeighs);
+        }
+        GraphSnapshot snap = GraphSnapshot.load(fileName);
+        if (snap != null && (!computeNeighs || snap.hasOverlaps())) {
+            return new HyperGraph(toHyperEdges(getLines(snap)), 
+                    snap.getIncidence(Settings.denseVertices), 
+                    computeNeighs ? snap.getAdjacency() : null);
+        }
+        // create the snapshot, or add the overlaps to the snapshot
+        int[][] lines = snap != null ? getLines(snap) : parseLines(fileName);
+        HyperGraph graph = new HyperGraph(toHyperEdges(lines), computeNeighs);
+        GraphSnapshot.write(fileName, lines, graph, computeNeighs);
+        return graph;
+    }
+    
+    /**
+     * 
+     * @param fileName path of input file
+     * @return vertex ids of each hyperedge, read from the snapshot of the 
+     * file if available
+     * @throws IOException 
+     */
+    private static int[][] loadLines(String fileName) throws IOException {
+        if (Settings.snapshot) {
+            GraphSnapshot snap = GraphSnapshot.load(fileName);
+            if (snap != null) {
+                return getLines(snap);
             }
-            HyperEdge s = new HyperEdge(counter, tmp);
-            edges.add(s);
-            counter++;
         }
-        rows.close();
-        return new HyperGraph(edges, computeNeighs);
+        return parseLines(fileName);
+    }
+    
+    /**
+     * 
+     * @param fileName path of input file
+     * @return vertex ids of each hyperedge, remapped to dense ids if 
+     * Settings.denseVertices
+     * @throws IOException 
+     */
+    private static int[][] parseLines(String fileName) throws IOException {
+        int[][] lines = HyperEdgeParser.parse(fileName);
+        return Settings.denseVertices ? VertexRemap.remap(lines) : lines;
+    }
+    
+    /**
+     * 
+     * @param snap snapshot of the input file
+     * @return vertex ids of each hyperedge, remapped to dense ids if 
+     * Settings.denseVertices
+     */
+    private static int[][] getLines(GraphSnapshot snap) {
+        if (!Settings.denseVertices) {
+            return snap.getLines();
+        }
+        // the snapshot already stores the position of each vertex
+        VertexRemap.setVertexIds(snap.getVertexIds());
+        return snap.getDenseLines();
+    }
+    
+    /**
+     * 
+     * @param lines vertex ids of each hyperedge, in file order
+     * @return list of hyperedges, where the id of each hyperedge is its position
+     */
+    private static List<HyperEdge> toHyperEdges(int[][] lines) {
+        HyperEdge[] edges = new HyperEdge[lines.length];
+        IntStream.range(0, lines.length).parallel().forEach(i -> {
+            Set<Integer> tmp = Sets.newHashSet();
+            for (int v : lines[i]) {
+                tmp.add(v);
+            }
+            edges[i] = new HyperEdge(i, tmp);
+        });
+        return Lists.newArrayList(edges);
     }
     
     /**
@@ -67,25 +128,44 @@ public class Reader {
      * @throws IOException 
      */
     public static Map<Integer, Set<Integer>> loadVMap(String fileName) throws IOException {
-        final BufferedReader rows = new BufferedReader(new FileReader(fileName));
+        int[][] lines = loadLines(fileName);
+        if (Settings.denseVertices) {
+            return toDenseVertexMap(lines);
+        }
         Map<Integer, Set<Integer>> vMap = Maps.newHashMap();
-        String line;
-        int counter = 0;
-
-        while ((line = rows.readLine()) != null) {
-            String[] parts = line.split(" ");
-            for (String p : parts) {
-                int v = Integer.parseInt(p);
-                Set<Integer> memb = vMap.getOrDefault(v, Sets.newHashSet());
-                memb.add(counter);
-                vMap.put(v, memb);
+        for (int e = 0; e < lines.length; e++) {
+            for (int v : lines[e]) {
+                Set<Integer> memb = vMap.get(v);
+                if (memb == null) {
+                    memb = Sets.newHashSet();
+                    vMap.put(v, memb);
+                }
+                memb.add(e);
             }
-            counter++;
         }
-        rows.close();
         return vMap;
     }
     
+    /**
+     * 
+     * @param lines dense vertex ids of each hyperedge, in file order
+     * @return for each vertex, set of hyperedges including that vertex, 
+     * stored in an array indexed by vertex id
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static DenseVertexMap toDenseVertexMap(int[][] lines) {
+        Set<Integer>[] memberships = new Set[VertexRemap.getVertexIds().length];
+        for (int e = 0; e < lines.length; e++) {
+            for (int v : lines[e]) {
+                if (memberships[v] == null) {
+                    memberships[v] = Sets.newHashSet();
+                }
+                memberships[v].add(e);
+            }
+        }
+        return new DenseVertexMap(memberships);
+    }
+    
     /**
      * 
      * @param fileName path to input file
@@ -93,24 +173,7 @@ public class Reader {
      * @throws IOException 
      */
     public static List<HyperEdge> loadEdges(String fileName) throws IOException {
-        final BufferedReader rows = new BufferedReader(new FileReader(fileName));
-        List<HyperEdge> edges = Lists.newArrayList();
-        String line;
-        int counter = 0;
-        Set<Integer> tmp;
-        String[] parts;
-
-        while ((line = rows.readLine()) != null) {
-            parts = line.split(" ");
-            tmp = Sets.newHashSet();
-            for (String p : parts) {
-                tmp.add(Integer.parseInt(p));
-            }
-            HyperEdge s = new HyperEdge(counter, tmp);
-            edges.add(s);
-            counter++;
-        }
-        rows.close();
+        List<HyperEdge> edges = toHyperEdges(loadLines(fileName));
         System.out.println("Num Hyperedges=" + edges.size());
         return edges;
     }
@@ -126,24 +189,46 @@ public class Reader {
         Map<Integer, String> labels = Maps.newHashMap();
         String line;
 
+        int numSkipped = 0;
         while ((line = rows.readLine()) != null) {
             String[] parts = line.split("\t");
+            int id;
             if (parts[0].contains("-")) {
                 String[] tmpId = parts[0].split("-");
-                labels.put(Integer.parseInt(tmpId[tmpId.length-1]), parts[1]);
+                id = Integer.parseInt(tmpId[tmpId.length-1]);
             } else {
-                labels.put(Integer.parseInt(parts[0]), parts[1]);
+                id = Integer.parseInt(parts[0]);
+            }
+            // labels of vertices not in the hypergraph cannot be queried
+            if (Settings.kind.equalsIgnoreCase("vertex") && !VertexRemap.contains(id)) {
+                numSkipped++;
+                continue;
             }
+            labels.put(toDenseLabeled(id), parts[1]);
+        }
+        if (numSkipped > 0) {
+            System.out.println(numSkipped + " labels of vertices not in the hypergraph skipped.");
         }
         rows.close();
         return labels;
     }
     
+    /**
+     * Labeled elements are vertices only if Settings.kind is "vertex".
+     * 
+     * @param id original id of a labeled element
+     * @return id of the element in the loaded hypergraph
+     */
+    private static int toDenseLabeled(int id) {
+        return Settings.kind.equalsIgnoreCase("vertex") ? VertexRemap.toDense(id) : id;
+    }
+    
     /**
      * 
      * @param fileName path of the input file
      * @return distance profiles of pairs of vertices/hyperedges
      * @throws IOException 
+     * @throws IllegalArgumentException if a vertex is not in the hypergraph
      */
     public static Map<Pair<Integer, Integer>, DistanceProfile> loadDistanceProfiles(String fileName) throws IOException {
         final BufferedReader rows = new BufferedReader(new FileReader(fileName));
@@ -152,8 +237,8 @@ public class Reader {
         
         while ((line = rows.readLine()) != null) {
             String[] parts = line.split(" ");
-            int p = Integer.parseInt(parts[0]);
-            int q = Integer.parseInt(parts[1]);
+            int p = VertexRemap.toDenseSource(Integer.parseInt(parts[0]));
+            int q = VertexRemap.toDenseDestination(Integer.parseInt(parts[1]));
             Pair<Integer, Integer> pair = new Pair<>(p, q);
             DistanceProfile profile = profiles.getOrDefault(pair, new DistanceProfile(p,q));
             int s = Integer.parseInt(parts[2]);
@@ -173,9 +258,9 @@ public class Reader {
      * Read distance oracle from disk.
      * 
      * @return distance oracle loaded from the file
-     * @throws FileNotFoundException 
+     * @throws IOException if the file is missing or written in another format
      */
-    public static DistanceOracle readOracle() throws FileNotFoundException {
+    public static DistanceOracle readOracle() throws IOException {
         
         String method = Settings.landmarkSelection;
         if (method.equalsIgnoreCase("bestcover") || method.equalsIgnoreCase("between")) {
@@ -205,6 +290,7 @@ public class Reader {
         SOracleSerializer ser3 = new SOracleSerializer();
         kryo.register(SDistanceOracle.class, ser3);
         // read from input
+        checkFormat(input, OracleSerializer.MAGIC, OracleSerializer.VERSION, fName);
         DistanceOracle oracle = kryo.readObject(input, DistanceOracle.class);
         input.close();
         System.out.println("maxS=" + oracle.getNumSOracles() + 
@@ -213,21 +299,99 @@ public class Reader {
         return oracle;
     }
     
+    /**
+     * Map in memory the distance oracle written by 
+     * {@link Writer#writeMappedOracle(DistanceOracle)}: labels and memberships
+     * are accessed directly from the file, without deserialization.
+     * 
+     * @return distance oracle backed by the file
+     * @throws IOException 
+     */
+    public static DistanceOracle mapOracle() throws IOException {
+        
+        String method = Settings.landmarkSelection;
+        if (method.equalsIgnoreCase("bestcover") || method.equalsIgnoreCase("between")) {
+            method += ("_" + Settings.samplePerc);
+        }
+        String fName = Settings.dataFile + "_MORACLE"
+                + "_S" + Settings.maxS
+                + "_L" + Settings.numLandmarks
+                + "_LB" + Settings.lb
+                + "_M" + method
+                + "_LA" + Settings.landmarkAssignment
+                + "_A" + Settings.alpha
+                + "_B" + Settings.beta;
+        
+        DistanceOracle oracle = OracleFile.map(Settings.outputFolder + fName, 
+                Settings.lazyOracle, Settings.maxLoadedOracles);
+        System.out.println("maxS=" + oracle.getNumSOracles() + 
+                " O=" + oracle.getOracleSize() + 
+                " L=" + oracle.getNumLandmarks());
+        return oracle;
+    }
+    
+    /**
+     * Open the distance oracle stored as one file per s, written by 
+     * {@link Writer#writeSOracle(SDistanceOracle, int)}. Each s-distance 
+     * oracle is read from disk only when it is accessed for the first time;
+     * only the header of each file, storing its number of landmarks and of 
+     * distance pairs, is read here.
+     * 
+     * @param CCS s-connected components for each s
+     * @return distance oracle that loads the s-distance oracles on demand
+     * @throws IOException if a file is missing or written in another format
+     */
+    public static DistanceOracle openOracle(ConnectedComponents CCS) throws IOException {
+        
+        String method = Settings.landmarkSelection;
+        if (method.equalsIgnoreCase("bestcover") || method.equalsIgnoreCase("between")) {
+            method += ("_" + Settings.samplePerc);
+        }
+        // check that all the s-distance oracles are on disk, and read their stats
+        int[] numLandmarks = new int[CCS.size()];
+        int[] oracleSizes = new int[CCS.size()];
+        for (int s = 1; s <= CCS.size(); s++) {
+            String fName = Settings.dataFile + "_SORACLE"
+                    + "_S" + Settings.maxS
+                    + "_s" + s
+                    + "_L" + Settings.numLandmarks
+                    + "_LB" + Settings.lb
+                    + "_M" + method
+                    + "_LA" + Settings.landmarkAssignment
+                    + "_A" + Settings.alpha
+                    + "_B" + Settings.beta;
+            try (Input input = new Input(new FileInputStream(Settings.outputFolder + fName), 16)) {
+                checkFormat(input, SOracleSerializer.MAGIC, SOracleSerializer.VERSION, fName);
+                numLandmarks[s-1] = input.readInt();
+                oracleSizes[s-1] = input.readInt();
+            }
+        }
+        DistanceOracle oracle = new DistanceOracle();
+        oracle.setConnectedComponents(CCS);
+        oracle.setSOracleLoader(CCS.size(), Reader::readSOracle, Settings.maxLoadedOracles, 
+                numLandmarks, oracleSizes);
+        System.out.println("maxS=" + oracle.getNumSOracles() + 
+                " O=" + oracle.getOracleSize() + 
+                " L=" + oracle.getNumLandmarks());
+        return oracle;
+    }
+    
     /**
      * Read s-distance oracle from disk.
      * 
      * @param s min overlap size
      * @return s-distance oracle loaded from the file
-     * @throws FileNotFoundException 
+     * @throws IOException if the file is missing or written in another format
      */
-    public static SDistanceOracle readSOracle(int s) throws FileNotFoundException {
+    public static SDistanceOracle readSOracle(int s) throws IOException {
         
         String method = Settings.landmarkSelection;
         if (method.equalsIgnoreCase("bestcover") || method.equalsIgnoreCase("between")) {
             method += ("_" + Settings.samplePerc);
         }
         String fName = Settings.dataFile + "_SORACLE"
-                + "_S" + s
+                + "_S" + Settings.maxS
+                + "_s" + s
                 + "_L" + Settings.numLandmarks
                 + "_LB" + Settings.lb
                 + "_M" + method
@@ -245,18 +409,44 @@ public class Reader {
         SOracleSerializer ser3 = new SOracleSerializer();
         kryo.register(SDistanceOracle.class, ser3);
         // read from input
+        checkFormat(input, SOracleSerializer.MAGIC, SOracleSerializer.VERSION, fName);
+        // skip the stats, already read when the oracle was opened
+        input.readInt();
+        input.readInt();
         SDistanceOracle oracle = kryo.readObject(input, SDistanceOracle.class);
         input.close();
         return oracle;
     }
     
+    /**
+     * Check the format tag written at the beginning of a Kryo file, so that 
+     * files written in another format are rejected before deserialization.
+     * 
+     * @param input input positioned at the beginning of the file
+     * @param magic expected magic number
+     * @param version expected format version
+     * @param fName name of the file
+     * @throws IOException if the tag does not match
+     */
+    private static void checkFormat(Input input, int magic, int version, String fName) throws IOException {
+        try {
+            if (input.readInt() == magic && input.readInt() == version) {
+                return;
+            }
+        } catch (KryoException ex) {
+            // shorter than the tag
+        }
+        input.close();
+        throw new IOException(fName + " is not in the expected format; delete it to recompute it.");
+    }
+    
     /**
      * Read connected components from disk.
      * 
      * @return connected components up to maxS
-     * @throws FileNotFoundException 
+     * @throws IOException if the file is missing or written in another format
      */
-    public static ConnectedComponents readConnectedComponents() throws FileNotFoundException {
+    public static ConnectedComponents readConnectedComponents() throws IOException {
         
         String fName = Settings.dataFile + "_CCS"
                 + "_S" + Settings.maxS
@@ -274,6 +464,7 @@ public class Reader {
         PairSerializer ser2 = new PairSerializer();
         kryo.register(org.javatuples.Pair.class, ser2);
         // read from input
+        checkFormat(input, CCSerializer.MAGIC, CCSerializer.VERSION, fName);
         ConnectedComponents CCS = kryo.readObject(input, ConnectedComponents.class);
         input.close();
         return CCS;
@@ -285,6 +476,7 @@ public class Reader {
      * @param fileName path to the query file
      * @return a set of pairs of elements
      * @throws IOException 
+     * @throws IllegalArgumentException if a vertex is not in the hypergraph
      */
     public static Set<Pair<Integer, Integer>> readSample(String fileName) throws IOException {
         
@@ -294,7 +486,9 @@ public class Reader {
 
         while ((line = rows.readLine()) != null) {
             String[] parts = line.split(" ");
-            Pair<Integer, Integer> p = new Pair<>(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            Pair<Integer, Integer> p = new Pair<>(
+                    VertexRemap.toDenseSource(Integer.parseInt(parts[0])), 
+                    VertexRemap.toDenseDestination(Integer.parseInt(parts[1])));
             pairs.add(p);
         }
         rows.close();
@@ -307,6 +501,7 @@ public class Reader {
      * @param fileName path of the query file
      * @return a set of elements (vertex or hyperedge ids)
      * @throws IOException 
+     * @throws IllegalArgumentException if a vertex is not in the hypergraph
      */
     public static List<Integer> readQueries(String fileName) throws IOException {
         
@@ -314,7 +509,7 @@ public class Reader {
         List<Integer> queries = Lists.newArrayList();
         String line;
         while ((line = rows.readLine()) != null) {
-            queries.add(Integer.parseInt(line.trim()));
+            queries.add(VertexRemap.toDenseSource(Integer.parseInt(line.trim())));
         }
         rows.close();
         return queries;
@@ -326,6 +521,7 @@ public class Reader {
      * @param fileName path to the query file
      * @return a set of pairs of elements
      * @throws IOException 
+     * @throws IllegalArgumentException if a vertex is not in the hypergraph
      */
     public static Collection<Triplet<Integer, Integer, Integer>> readSQueries(String fileName) throws IOException {
         
@@ -337,8 +533,8 @@ public class Reader {
             String[] parts = line.split(" ");
             // source, destination, s
             Triplet<Integer, Integer, Integer> t = new Triplet<>(
-                    Integer.parseInt(parts[0]), 
-                    Integer.parseInt(parts[1]),
+                    VertexRemap.toDenseSource(Integer.parseInt(parts[0])), 
+                    VertexRemap.toDenseDestination(Integer.parseInt(parts[1])),
                     Integer.parseInt(parts[2]));
             queries.add(t);
         }
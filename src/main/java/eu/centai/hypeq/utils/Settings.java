@@ -32,6 +32,20 @@ public class Settings {
     public static int seed = 4;
     // whether the oracle should be stored on disk
     public static boolean store = false;
+    // whether the stored oracle should be memory-mapped instead of deserialized
+    public static boolean mappedOracle = false;
+    // whether each stored s-distance oracle should be loaded only when first queried
+    public static boolean lazyOracle = false;
+    // max number of s-distance oracles kept in memory when lazily loaded (0 for no limit)
+    public static int maxLoadedOracles = 0;
+    // whether the hypergraph should be loaded from its binary snapshot (created if missing)
+    public static boolean snapshot = false;
+    // whether the vertex ids should be remapped to 0..V-1 at load time
+    public static boolean denseVertices = false;
+    // whether the s-connected components for all s should be found in a single pass
+    public static boolean singlePassCCs = false;
+    // max s for which the BFS on the s-line graph can switch to bottom-up steps (0 to never switch)
+    public static int directionOptimizingMaxS = 0;
     // whether we want to find only the approx distances or also the exact ones
     public static boolean isApproximate = false;
     // kind of distance to compute, among 
@@ -22,6 +22,9 @@ import org.javatuples.Pair;
  */
 public class Utils {
 
+    // size ratio above which intersections use galloping instead of merging
+    private static final int GALLOP_RATIO = 16;
+
     /**
      * 
      * @param s1 set of integers
@@ -79,6 +82,111 @@ public class Utils {
         return count;
     }
 
+    /**
+     * 
+     * @param a sorted array of distinct integers
+     * @param b sorted array of distinct integers
+     * @return true if the two arrays have a common value; false otherwise
+     */
+    public static boolean intersect(int[] a, int[] b) {
+        return cappedIntersectionSize(a, b, 1) > 0;
+    }
+    
+    /**
+     * 
+     * @param a sorted array of distinct integers
+     * @param b sorted array of distinct integers
+     * @return number of common values in the two arrays
+     */
+    public static int intersectionSize(int[] a, int[] b) {
+        return cappedIntersectionSize(a, b, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Arrays of similar size are merged linearly; if one array is much larger
+     * than the other, each value of the smaller array is searched in the 
+     * larger one by galloping.
+     * 
+     * @param a sorted array of distinct integers
+     * @param b sorted array of distinct integers
+     * @param maxI maximum number of common values considered
+     * @return number of common values in the two arrays, stopping at maxI
+     */
+    public static int cappedIntersectionSize(int[] a, int[] b, int maxI) {
+        if (a.length > b.length) {
+            int[] tmp = a;
+            a = b;
+            b = tmp;
+        }
+        if (a.length == 0 || a[a.length - 1] < b[0] || b[b.length - 1] < a[0]) {
+            return 0;
+        }
+        int count = 0;
+        if (b.length / a.length >= GALLOP_RATIO) {
+            int j = 0;
+            for (int i = 0; i < a.length && j < b.length; i++) {
+                j = gallop(b, j, a[i]);
+                if (j < b.length && b[j] == a[i]) {
+                    count++;
+                    if (count >= maxI) {
+                        return count;
+                    }
+                    j++;
+                }
+            }
+            return count;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                if (count >= maxI) {
+                    return count;
+                }
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * 
+     * @param b sorted array of integers
+     * @param from first position to consider; all the values before it are
+     * lower than x
+     * @param x value to search
+     * @return first position not lower than from storing a value not lower 
+     * than x, or b.length if there is no such position
+     */
+    private static int gallop(int[] b, int from, int x) {
+        int lo = from;
+        int hi = from;
+        int step = 1;
+        // double the step until a value not lower than x is found
+        while (hi < b.length && b[hi] < x) {
+            lo = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, b.length);
+        // binary search in [lo, hi)
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (b[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
     /**
      * 
      * @param numbers array of integers
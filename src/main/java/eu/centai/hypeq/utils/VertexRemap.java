@@ -0,0 +1,150 @@
+package eu.centai.hypeq.utils;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Remapping of the vertex ids of the loaded hypergraph to the dense range
+ * 0..V-1, where the dense id of a vertex is the position of its original id
+ * among the sorted distinct vertex ids.
+ * The reverse table is kept to translate the query elements read from disk,
+ * and the elements written on disk, back to the original ids.
+ *
+ * @author giulia
+ */
+public class VertexRemap {
+
+    // original vertex ids, in increasing order
+    private static int[] vertexIds;
+
+    /**
+     * Remap the vertex ids in lines to dense ids, and keep the reverse table.
+     *
+     * @param lines vertex ids of each hyperedge, overwritten with the dense ids
+     * @return lines
+     */
+    public static int[][] remap(int[][] lines) {
+        IntOpenHashSet distinct = new IntOpenHashSet();
+        for (int[] line : lines) {
+            for (int v : line) {
+                distinct.add(v);
+            }
+        }
+        int[] ids = distinct.toIntArray();
+        Arrays.parallelSort(ids);
+        IntStream.range(0, lines.length).parallel().forEach(e -> {
+            for (int i = 0; i < lines[e].length; i++) {
+                lines[e][i] = Arrays.binarySearch(ids, lines[e][i]);
+            }
+        });
+        vertexIds = ids;
+        return lines;
+    }
+
+    /**
+     *
+     * @param ids original vertex ids, in increasing order
+     */
+    public static void setVertexIds(int[] ids) {
+        vertexIds = ids;
+    }
+
+    /**
+     *
+     * @return original vertex ids, in increasing order, or null if the
+     * vertices have not been remapped
+     */
+    public static int[] getVertexIds() {
+        return vertexIds;
+    }
+
+    /**
+     *
+     * @return true if the vertices of the loaded hypergraph have been remapped
+     */
+    public static boolean isActive() {
+        return vertexIds != null;
+    }
+
+    /**
+     *
+     * @param v original vertex id
+     * @return true if v is a vertex of the hypergraph, or the vertices have
+     * not been remapped
+     */
+    public static boolean contains(int v) {
+        return vertexIds == null || Arrays.binarySearch(vertexIds, v) >= 0;
+    }
+
+    /**
+     *
+     * @param v original vertex id
+     * @return dense id of v; v if the vertices have not been remapped
+     * @throws IllegalArgumentException if v is not a vertex of the hypergraph
+     */
+    public static int toDense(int v) {
+        if (vertexIds == null) {
+            return v;
+        }
+        int d = Arrays.binarySearch(vertexIds, v);
+        if (d < 0) {
+            throw new IllegalArgumentException("Vertex " + v + " is not in the hypergraph.");
+        }
+        return d;
+    }
+
+    /**
+     *
+     * @param d dense vertex id
+     * @return original id of d; d if the vertices have not been remapped or
+     * d is not a dense id
+     */
+    public static int toOriginal(int d) {
+        if (vertexIds == null || d < 0 || d >= vertexIds.length) {
+            return d;
+        }
+        return vertexIds[d];
+    }
+
+    /**
+     * The source of a query is a vertex unless Settings.kind is "edge".
+     *
+     * @param p original id of the source of a query
+     * @return id of p in the loaded hypergraph
+     * @throws IllegalArgumentException if p is a vertex not in the hypergraph
+     */
+    public static int toDenseSource(int p) {
+        return Settings.kind.equalsIgnoreCase("edge") ? p : toDense(p);
+    }
+
+    /**
+     * The destination of a query is a vertex only if Settings.kind is "vertex".
+     *
+     * @param q original id of the destination of a query
+     * @return id of q in the loaded hypergraph
+     * @throws IllegalArgumentException if q is a vertex not in the hypergraph
+     */
+    public static int toDenseDestination(int q) {
+        return Settings.kind.equalsIgnoreCase("vertex") ? toDense(q) : q;
+    }
+
+    /**
+     *
+     * @param p id of the source of a query in the loaded hypergraph
+     * @return original id of p
+     */
+    public static int toOriginalSource(int p) {
+        return Settings.kind.equalsIgnoreCase("edge") ? p : toOriginal(p);
+    }
+
+    /**
+     *
+     * @param q id of the destination of a query in the loaded hypergraph
+     * @return original id of q
+     */
+    public static int toOriginalDestination(int q) {
+        return Settings.kind.equalsIgnoreCase("vertex") ? toOriginal(q) : q;
+    }
+
+}
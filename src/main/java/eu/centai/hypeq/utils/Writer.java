@@ -6,6 +6,7 @@ import eu.centai.hyped.cc.CCSerializer;
 import eu.centai.hyped.cc.ConnectedComponents;
 import eu.centai.hypeq.oracle.structures.DistanceOracle;
 import eu.centai.hypeq.oracle.structures.DistanceProfile;
+import eu.centai.hypeq.oracle.structures.OracleFile;
 import eu.centai.hypeq.oracle.structures.OracleSerializer;
 import eu.centai.hypeq.oracle.structures.SDistanceOracle;
 import eu.centai.hypeq.oracle.structures.SOracleSerializer;
@@ -159,7 +160,8 @@ public class Writer {
                 for (Entry<Integer, Triplet<Double, Double, Double>> entry : realP.getDistanceProfile().entrySet()) {
                     int s = entry.getKey();
                     // u v s real lb up approx
-                    fwP.write(p.getValue0() + " " + p.getValue1() + " "
+                    fwP.write(VertexRemap.toOriginalSource(p.getValue0()) + " " 
+                            + VertexRemap.toOriginalDestination(p.getValue1()) + " "
                             + s + " " + entry.getValue().getValue0() + " "
                             + approxP.getSLowBound(s) + " "
                             + approxP.getSUpBound(s) + " "
@@ -170,8 +172,8 @@ public class Writer {
             for (Pair<Integer, Integer> p : approx.keySet()) {
                 DistanceProfile approxP = approx.get(p);
                 for (Entry<Integer, Triplet<Double, Double, Double>> entry : approxP.getDistanceProfile().entrySet()) {
-                    fwP.write(p.getValue0() + " " 
-                            + p.getValue1() + " "
+                    fwP.write(VertexRemap.toOriginalSource(p.getValue0()) + " " 
+                            + VertexRemap.toOriginalDestination(p.getValue1()) + " "
                             + entry.getKey() + " " 
                             + entry.getValue().getValue2() + " "
                             + entry.getValue().getValue0() + " "
@@ -216,7 +218,7 @@ public class Writer {
         approx.entrySet().forEach(en -> {
             double realC = real.getOrDefault(en.getKey(), en.getValue());
             try {
-                fwP.write(en.getKey() + " " + realC + " " + en.getValue() + "\n");
+                fwP.write(VertexRemap.toOriginalSource(en.getKey()) + " " + realC + " " + en.getValue() + "\n");
             } catch (IOException ex) {
                 ex.printStackTrace();
             }
@@ -256,8 +258,8 @@ public class Writer {
             for (Triplet<Integer, Integer, Double> t : pair.getValue1()) {
                 try {
                     // source, destination, s, s-distance
-                    fwP.write(pair.getValue0() + " "
-                            + t.getValue1() + " "
+                    fwP.write(VertexRemap.toOriginalSource(pair.getValue0()) + " "
+                            + VertexRemap.toOriginalDestination(t.getValue1()) + " "
                             + t.getValue0() + " "
                             + t.getValue2() + "\n");
                 } catch (IOException ex) {
@@ -308,14 +310,14 @@ public class Writer {
                     try {
                         // query, neighbor (approx), neighbor (real), s
                         if (reals.isEmpty()) {
-                            fwP.write(queries.get(i) + " "
-                                    + entry.getValue()[i][j] + " "
-                                    + entry.getValue()[i][j] + " "
+                            fwP.write(VertexRemap.toOriginalSource(queries.get(i)) + " "
+                                    + VertexRemap.toOriginalDestination(entry.getValue()[i][j]) + " "
+                                    + VertexRemap.toOriginalDestination(entry.getValue()[i][j]) + " "
                                     + entry.getKey() + "\n");
                         } else {
-                            fwP.write(queries.get(i) + " "
-                                    + entry.getValue()[i][j] + " "
-                                    + reals.get(entry.getKey())[i][j] + " "
+                            fwP.write(VertexRemap.toOriginalSource(queries.get(i)) + " "
+                                    + VertexRemap.toOriginalDestination(entry.getValue()[i][j]) + " "
+                                    + VertexRemap.toOriginalDestination(reals.get(entry.getKey())[i][j]) + " "
                                     + entry.getKey() + "\n");
                         }
                     } catch (IOException ex) {
@@ -390,11 +392,39 @@ public class Writer {
         SOracleSerializer ser3 = new SOracleSerializer();
         kryo.register(SDistanceOracle.class, ser3);
         // write
+        out.writeInt(OracleSerializer.MAGIC);
+        out.writeInt(OracleSerializer.VERSION);
         kryo.writeObject(out, oracle);
         out.flush();
         out.close();
     }
     
+    /**
+     * Write the distance oracle to disk, in the format that can be mapped in 
+     * memory by {@link Reader#mapOracle()}.
+     * 
+     * @param oracle distance oracle
+     * @throws IOException 
+     */
+    public static void writeMappedOracle(DistanceOracle oracle) throws IOException {
+        
+        String method = Settings.landmarkSelection;
+
+        if (method.equalsIgnoreCase("bestcover") || method.equalsIgnoreCase("between")) {
+            method += ("_" + Settings.samplePerc);
+        }
+        
+        String fName = Settings.dataFile + "_MORACLE"
+                + "_S" + Settings.maxS
+                + "_L" + Settings.numLandmarks
+                + "_LB" + Settings.lb
+                + "_M" + method
+                + "_LA" + Settings.landmarkAssignment
+                + "_A" + Settings.alpha
+                + "_B" + Settings.beta;
+        OracleFile.write(oracle, Settings.outputFolder + fName);
+    }
+    
     /**
      * Write the s-distance oracle to disk.
      * 
@@ -411,7 +441,8 @@ public class Writer {
         }
         
         String fName = Settings.dataFile + "_SORACLE"
-                + "_S" + s
+                + "_S" + Settings.maxS
+                + "_s" + s
                 + "_L" + Settings.numLandmarks
                 + "_LB" + Settings.lb
                 + "_M" + method
@@ -428,6 +459,11 @@ public class Writer {
         SOracleSerializer ser3 = new SOracleSerializer();
         kryo.register(SDistanceOracle.class, ser3);
         // write
+        out.writeInt(SOracleSerializer.MAGIC);
+        out.writeInt(SOracleSerializer.VERSION);
+        // stats read without loading the oracle
+        out.writeInt(oracle.getNumLandmarks());
+        out.writeInt(oracle.getOracleSize());
         kryo.writeObject(out, oracle);
         out.flush();
         out.close();
@@ -457,6 +493,8 @@ public class Writer {
         PairSerializer ser2 = new PairSerializer();
         kryo.register(org.javatuples.Pair.class, ser2);
         // write
+        out.writeInt(CCSerializer.MAGIC);
+        out.writeInt(CCSerializer.VERSION);
         kryo.writeObject(out, CCS);
         out.flush();
         out.close();